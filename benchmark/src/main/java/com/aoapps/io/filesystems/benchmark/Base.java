@@ -0,0 +1,82 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.FileSystem;
+import com.aoapps.io.filesystems.JavaFileSystem;
+import com.aoapps.io.filesystems.Path;
+import com.aoapps.io.filesystems.TempFileSystem;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * The base file system implementations under benchmark.
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum Base {
+
+  /**
+   * {@link JavaFileSystem#getDefault()}, rooted in a new temporary directory.
+   */
+  JAVA {
+    @Override
+    FileSystem getFileSystem() {
+      return JavaFileSystem.getDefault();
+    }
+
+    @Override
+    Path createWorkDirectory(FileSystem fileSystem) throws IOException {
+      return fileSystem.parsePath(
+          Files.createTempDirectory("ao-io-filesystems-benchmark-").toAbsolutePath().toString()
+      );
+    }
+  },
+
+  /**
+   * A new {@link TempFileSystem}.
+   */
+  TEMP {
+    @Override
+    FileSystem getFileSystem() {
+      return new TempFileSystem();
+    }
+
+    @Override
+    Path createWorkDirectory(FileSystem fileSystem) throws IOException {
+      return fileSystem.createDirectory(new Path(new Path(fileSystem), "benchmark"));
+    }
+  };
+
+  /**
+   * Gets the file system, which may be a new instance per call.
+   */
+  abstract FileSystem getFileSystem();
+
+  /**
+   * Creates a new, empty working directory.
+   * This is performed on the base file system before any {@link Layering} is applied.
+   */
+  abstract Path createWorkDirectory(FileSystem fileSystem) throws IOException;
+}
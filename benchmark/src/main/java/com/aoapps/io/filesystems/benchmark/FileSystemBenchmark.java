@@ -0,0 +1,259 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.DirectoryEntryIterator;
+import com.aoapps.io.filesystems.FileSystem;
+import com.aoapps.io.filesystems.Path;
+import com.aoapps.io.filesystems.PathIterator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the operations of {@link FileSystem} against a fixture directory.
+ *
+ * <p>The fixture is created through the base file system, then accessed through the
+ * selected {@link Layering}.  Mutating benchmarks are not run against
+ * {@link Layering#READ_ONLY}, since it rejects all modifications.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FileSystemBenchmark {
+
+  /**
+   * The fixture shared by all benchmarks.
+   */
+  @State(Scope.Benchmark)
+  public abstract static class Fixture {
+
+    @Param({"1000"})
+    public int files;
+
+    /**
+     * The base file system.
+     */
+    FileSystem baseFileSystem;
+
+    /**
+     * The working directory on the base file system.
+     */
+    Path baseWork;
+
+    /**
+     * The file system with layering applied.
+     */
+    FileSystem fileSystem;
+
+    /**
+     * The working directory on the layered file system.
+     */
+    Path work;
+
+    /**
+     * The regular files within the working directory, on the layered file system.
+     * These are parsed by the layered file system so that wrappers see their own paths.
+     */
+    Path[] regularFiles;
+
+    abstract Base getBase();
+
+    abstract Layering getLayering();
+
+    /**
+     * Creates the fixture directory populated with {@link #files} empty files.
+     */
+    @Setup(Level.Trial)
+    public void setupFixture() throws IOException {
+      baseFileSystem = getBase().getFileSystem();
+      baseWork = getBase().createWorkDirectory(baseFileSystem);
+      for (int i = 0; i < files; i++) {
+        baseFileSystem.createFile(new Path(baseWork, "file" + i));
+      }
+      fileSystem = getLayering().wrap(baseFileSystem);
+      work = fileSystem.parsePath(baseWork.toString());
+      regularFiles = new Path[files];
+      for (int i = 0; i < files; i++) {
+        regularFiles[i] = fileSystem.parsePath(new Path(baseWork, "file" + i).toString());
+      }
+    }
+
+    /**
+     * Recursively removes the fixture directory.
+     */
+    @TearDown(Level.Trial)
+    public void tearDownFixture() throws IOException {
+      deleteRecursive(baseFileSystem, baseWork);
+    }
+
+    private static void deleteRecursive(FileSystem fileSystem, Path path) throws IOException {
+      List<Path> children = new ArrayList<>();
+      try {
+        try (PathIterator iter = fileSystem.list(path)) {
+          while (iter.hasNext()) {
+            children.add(iter.next());
+          }
+        }
+      } catch (java.nio.file.NotDirectoryException e) {
+        children = Collections.emptyList();
+      }
+      for (Path child : children) {
+        deleteRecursive(fileSystem, child);
+      }
+      fileSystem.delete(path);
+    }
+  }
+
+  /**
+   * Fixture for read-only benchmarks.
+   */
+  public static class ReadFixture extends Fixture {
+
+    @Param({"JAVA", "TEMP"})
+    public Base base;
+
+    @Param({"NONE", "READ_ONLY", "RANDOM_FAIL", "STACK_4"})
+    public Layering layering;
+
+    private int next;
+
+    @Override
+    Base getBase() {
+      return base;
+    }
+
+    @Override
+    Layering getLayering() {
+      return layering;
+    }
+
+    Path nextFile() {
+      int i = next;
+      next = (i + 1) % regularFiles.length;
+      return regularFiles[i];
+    }
+  }
+
+  /**
+   * Fixture for benchmarks that modify the file system.
+   */
+  public static class WriteFixture extends Fixture {
+
+    @Param({"JAVA", "TEMP"})
+    public Base base;
+
+    @Param({"NONE", "RANDOM_FAIL", "STACK_4"})
+    public Layering layering;
+
+    Path created;
+
+    @Override
+    Base getBase() {
+      return base;
+    }
+
+    @Override
+    Layering getLayering() {
+      return layering;
+    }
+
+    @Setup(Level.Trial)
+    public void setupCreated() {
+      created = fileSystem.parsePath(new Path(baseWork, "created").toString());
+    }
+  }
+
+  /**
+   * Lists the full fixture directory, consuming every child.
+   */
+  @Benchmark
+  public void list(ReadFixture fixture, Blackhole blackhole) throws IOException {
+    try (PathIterator iter = fixture.fileSystem.list(fixture.work)) {
+      while (iter.hasNext()) {
+        blackhole.consume(iter.next());
+      }
+    }
+  }
+
+  /**
+   * Lists the full fixture directory with attributes, consuming every entry.
+   */
+  @Benchmark
+  public void listEntries(ReadFixture fixture, Blackhole blackhole) throws IOException {
+    try (DirectoryEntryIterator iter = fixture.fileSystem.listEntries(fixture.work)) {
+      while (iter.hasNext()) {
+        blackhole.consume(iter.next());
+      }
+    }
+  }
+
+  /**
+   * Lists the full fixture directory, then gets the size of every child, for comparison with
+   * {@link #listEntries(com.aoapps.io.filesystems.benchmark.FileSystemBenchmark.ReadFixture, org.openjdk.jmh.infra.Blackhole)}.
+   */
+  @Benchmark
+  public void listThenSize(ReadFixture fixture, Blackhole blackhole) throws IOException {
+    try (PathIterator iter = fixture.fileSystem.list(fixture.work)) {
+      while (iter.hasNext()) {
+        blackhole.consume(fixture.fileSystem.size(iter.next()));
+      }
+    }
+  }
+
+  /**
+   * Gets the size of one file per call, rotating through the fixture.
+   */
+  @Benchmark
+  public long size(ReadFixture fixture) throws IOException {
+    return fixture.fileSystem.size(fixture.nextFile());
+  }
+
+  /**
+   * Creates then deletes the same file, measuring the pair together.
+   */
+  @Benchmark
+  public void createFileDelete(WriteFixture fixture) throws IOException {
+    fixture.fileSystem.delete(fixture.fileSystem.createFile(fixture.created));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.FileSystem;
+import com.aoapps.io.filesystems.RandomFailFileSystem;
+import com.aoapps.io.filesystems.ReadOnlyFileSystem;
+import java.util.Random;
+
+/**
+ * The different stacks of {@link com.aoapps.io.filesystems.FileSystemWrapper} placed over a base file system.
+ * The random-fail layers never fail, so only their overhead is measured.
+ *
+ * @author  AO Industries, Inc.
+ */
+public enum Layering {
+
+  /**
+   * The base file system directly.
+   */
+  NONE {
+    @Override
+    FileSystem wrap(FileSystem base) {
+      return base;
+    }
+  },
+
+  /**
+   * A single {@link ReadOnlyFileSystem}.
+   */
+  READ_ONLY {
+    @Override
+    FileSystem wrap(FileSystem base) {
+      return new ReadOnlyFileSystem(base);
+    }
+  },
+
+  /**
+   * A single {@link RandomFailFileSystem} that never fails.
+   */
+  RANDOM_FAIL {
+    @Override
+    FileSystem wrap(FileSystem base) {
+      return neverFail(base);
+    }
+  },
+
+  /**
+   * Four nested {@link RandomFailFileSystem} that never fail.
+   */
+  STACK_4 {
+    @Override
+    FileSystem wrap(FileSystem base) {
+      return neverFail(neverFail(neverFail(neverFail(base))));
+    }
+  };
+
+  private static final RandomFailFileSystem.FailureProbabilities NEVER_FAIL = new RandomFailFileSystem.FailureProbabilities() {
+    @Override
+    public float getList() {
+      return 0;
+    }
+
+    @Override
+    public float getListIterate() {
+      return 0;
+    }
+
+    @Override
+    public float getListIterateClose() {
+      return 0;
+    }
+
+    @Override
+    public float getReadAttributes() {
+      return 0;
+    }
+
+    @Override
+    public float getUnlink() {
+      return 0;
+    }
+
+    @Override
+    public float getSize() {
+      return 0;
+    }
+
+    @Override
+    public float getCreateFile() {
+      return 0;
+    }
+
+    @Override
+    public float getCreateDirectory() {
+      return 0;
+    }
+
+    @Override
+    public float getLock() {
+      return 0;
+    }
+  };
+
+  private static RandomFailFileSystem neverFail(FileSystem base) {
+    return new RandomFailFileSystem(base, NEVER_FAIL, new Random(0));
+  }
+
+  abstract FileSystem wrap(FileSystem base);
+}
@@ -0,0 +1,194 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.FileLock;
+import com.aoapps.io.filesystems.FileSystem;
+import com.aoapps.io.filesystems.Path;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks acquiring and closing file locks.
+ *
+ * <p>Uncontended benchmarks lock a file of their own per thread, so threads never wait for
+ * each other.  Contended benchmarks run several threads locking the same file.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LockBenchmark {
+
+  /**
+   * The number of threads of the contended benchmarks.
+   */
+  private static final int CONTENDED_THREADS = 4;
+
+  /**
+   * The working directory and the file shared by all threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Fixture {
+
+    @Param({"JAVA", "TEMP"})
+    public Base base;
+
+    @Param({"NONE", "RANDOM_FAIL", "STACK_4"})
+    public Layering layering;
+
+    FileSystem baseFileSystem;
+    Path baseWork;
+    FileSystem fileSystem;
+
+    /**
+     * The file locked by the contended benchmarks.
+     */
+    Path shared;
+
+    private final AtomicInteger nextThread = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setupFixture() throws IOException {
+      baseFileSystem = base.getFileSystem();
+      baseWork = base.createWorkDirectory(baseFileSystem);
+      fileSystem = layering.wrap(baseFileSystem);
+      shared = createFile("shared");
+    }
+
+    /**
+     * Creates an empty file through the base file system, returning it on the layered file system.
+     */
+    Path createFile(String name) throws IOException {
+      Path file = baseFileSystem.createFile(new Path(baseWork, name));
+      return fileSystem.parsePath(file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownFixture() throws IOException {
+      baseFileSystem.deleteTree(baseWork);
+    }
+  }
+
+  /**
+   * A file locked only by a single thread.
+   */
+  @State(Scope.Thread)
+  public static class ThreadFile {
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setupFile(Fixture fixture) throws IOException {
+      file = fixture.createFile("thread" + fixture.nextThread.getAndIncrement());
+    }
+  }
+
+  /**
+   * Acquires and closes an exclusive lock of the whole file.
+   */
+  @Benchmark
+  public boolean lock(Fixture fixture, ThreadFile threadFile) throws IOException {
+    try (FileLock lock = fixture.fileSystem.lock(threadFile.file)) {
+      return lock.isValid();
+    }
+  }
+
+  /**
+   * Acquires and closes a shared lock of the whole file.
+   */
+  @Benchmark
+  public boolean lockShared(Fixture fixture, ThreadFile threadFile) throws IOException {
+    try (FileLock lock = fixture.fileSystem.lock(threadFile.file, 0, Long.MAX_VALUE, true)) {
+      return lock.isValid();
+    }
+  }
+
+  /**
+   * Tries and closes an exclusive lock of the whole file, which never fails when uncontended.
+   */
+  @Benchmark
+  public boolean tryLock(Fixture fixture, ThreadFile threadFile) throws IOException {
+    try (FileLock lock = fixture.fileSystem.tryLock(threadFile.file)) {
+      return lock.isValid();
+    }
+  }
+
+  /**
+   * Acquires and closes an exclusive lock of a file shared by several threads, which wait for each other.
+   */
+  @Benchmark
+  @Threads(CONTENDED_THREADS)
+  public boolean lockContended(Fixture fixture) throws IOException {
+    try (FileLock lock = fixture.fileSystem.lock(fixture.shared)) {
+      return lock.isValid();
+    }
+  }
+
+  /**
+   * Acquires and closes a shared lock of a file shared by several threads, which hold the lock together.
+   */
+  @Benchmark
+  @Threads(CONTENDED_THREADS)
+  public boolean lockSharedContended(Fixture fixture) throws IOException {
+    try (FileLock lock = fixture.fileSystem.lock(fixture.shared, 0, Long.MAX_VALUE, true)) {
+      return lock.isValid();
+    }
+  }
+
+  /**
+   * Tries and closes an exclusive lock of a file shared by several threads, counting the tries that fail.
+   */
+  @Benchmark
+  @Threads(CONTENDED_THREADS)
+  public boolean tryLockContended(Fixture fixture) throws IOException {
+    FileLock lock = fixture.fileSystem.tryLock(fixture.shared);
+    if (lock == null) {
+      return false;
+    }
+    try {
+      return lock.isValid();
+    } finally {
+      lock.close();
+    }
+  }
+}
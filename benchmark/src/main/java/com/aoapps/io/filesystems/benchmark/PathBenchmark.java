@@ -0,0 +1,136 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.FileSystem;
+import com.aoapps.io.filesystems.Path;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the in-memory operations of {@link Path}, {@link FileSystem#parsePath(java.lang.String)}
+ * and {@link FileSystem#join(java.lang.String[])}.  No I/O is performed.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PathBenchmark {
+
+  @Param({"JAVA", "TEMP"})
+  public Base base;
+
+  @Param({"NONE", "READ_ONLY", "STACK_4"})
+  public Layering layering;
+
+  @Param({"1", "8", "32"})
+  public int depth;
+
+  private FileSystem fileSystem;
+  private String pathString;
+  private String[] names;
+  private Path path;
+  private Path sibling;
+  private Path parent;
+  private String[] explodeBuffer;
+
+  /**
+   * Builds a path of the requested depth, plus a sibling that differs only in its last name.
+   */
+  @Setup
+  public void setup() throws IOException {
+    fileSystem = layering.wrap(base.getFileSystem());
+    StringBuilder sb = new StringBuilder();
+    names = new String[depth];
+    for (int i = 0; i < depth; i++) {
+      String name = "dir" + i;
+      names[i] = name;
+      sb.append(Path.SEPARATOR).append(name);
+    }
+    pathString = sb.toString();
+    path = fileSystem.parsePath(pathString);
+    parent = path.getParent();
+    sibling = new Path(parent, "sibling");
+    explodeBuffer = new String[depth];
+  }
+
+  @Benchmark
+  public Path newChild() {
+    return new Path(parent, "child");
+  }
+
+  @Benchmark
+  public int newChildHashCode() {
+    return new Path(parent, "child").hashCode();
+  }
+
+  @Benchmark
+  public Path parsePath() {
+    return fileSystem.parsePath(pathString);
+  }
+
+  @Benchmark
+  public Path join() {
+    return fileSystem.join(names);
+  }
+
+  @Benchmark
+  public String toStringPath() {
+    return path.toString();
+  }
+
+  @Benchmark
+  public String[] explode() {
+    return path.explode();
+  }
+
+  @Benchmark
+  public String[] explodeReuse() {
+    return path.explode(explodeBuffer);
+  }
+
+  @Benchmark
+  public int compareTo() {
+    return path.compareTo(sibling);
+  }
+
+  @Benchmark
+  public int hashCodeCached() {
+    return path.hashCode();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems.benchmark;
+
+import com.aoapps.io.filesystems.Path;
+import com.aoapps.io.filesystems.PathInterner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link PathInterner}, for comparison with {@link PathBenchmark#parsePath()}
+ * and {@link PathBenchmark#join()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PathInternerBenchmark {
+
+  @Param({"JAVA", "TEMP"})
+  public Base base;
+
+  @Param({"1", "8", "32"})
+  public int depth;
+
+  private PathInterner interner;
+  private String pathString;
+  private String[] names;
+  private String newLeafString;
+
+  /**
+   * Interns a path of the requested depth.
+   */
+  @Setup
+  public void setup() {
+    interner = new PathInterner(base.getFileSystem());
+    StringBuilder sb = new StringBuilder();
+    names = new String[depth];
+    for (int i = 0; i < depth; i++) {
+      String name = "dir" + i;
+      names[i] = name;
+      sb.append(Path.SEPARATOR).append(name);
+    }
+    pathString = sb.toString();
+    newLeafString = pathString.substring(0, pathString.lastIndexOf(Path.SEPARATOR) + 1) + "leaf";
+    interner.parsePath(pathString);
+  }
+
+  /**
+   * Parses a path that is fully interned.
+   */
+  @Benchmark
+  public Path parsePathHit() {
+    return interner.parsePath(pathString);
+  }
+
+  /**
+   * Parses a path whose parents are interned, but whose last name is not retained between calls.
+   */
+  @Benchmark
+  public Path parsePathNewLeaf() {
+    return interner.parsePath(newLeafString);
+  }
+
+  @Benchmark
+  public Path joinHit() {
+    return interner.join(names);
+  }
+}
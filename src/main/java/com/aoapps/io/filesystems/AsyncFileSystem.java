@@ -0,0 +1,292 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An asynchronous facade over any {@link FileSystem}.  Each operation runs on
+ * the given {@link Executor} and its result is returned as a {@link CompletableFuture}.
+ *
+ * <p>The number of operations running at once is bounded.  Operations beyond the
+ * bound are queued without blocking the caller, and are started as others complete.
+ * This allows a large number of requests to be issued while the underlying file
+ * system sees only a controlled amount of concurrency.</p>
+ *
+ * <p>Since file system calls block, the executor should allow at least as many
+ * threads as the maximum in-flight operations.</p>
+ *
+ * <p>Futures that are cancelled before their operation starts will not run their
+ * operation.  Cancelling a running operation does not interrupt it, but a lock
+ * obtained after its future was cancelled is released immediately.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class AsyncFileSystem {
+
+  /**
+   * The default maximum number of operations running at once.
+   */
+  public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+  /**
+   * A file system operation that returns a value.
+   */
+  @FunctionalInterface
+  private static interface Operation<T> {
+    T call() throws IOException;
+  }
+
+  /**
+   * A queued operation along with the future that receives its result.
+   */
+  private final class Task<T> implements Runnable {
+
+    private final Operation<T> operation;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private Task(Operation<T> operation) {
+      this.operation = operation;
+    }
+
+    @Override
+    public void run() {
+      T result = null;
+      Throwable failure = null;
+      boolean ran = false;
+      try {
+        if (!future.isDone()) {
+          result = operation.call();
+          ran = true;
+        }
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        // Release the slot before completing, so dependent stages do not count as in-flight
+        inFlight.decrementAndGet();
+        startQueued();
+      }
+      if (failure != null) {
+        future.completeExceptionally(failure);
+      } else if (ran && !future.complete(result) && result instanceof FileLock) {
+        // Cancelled while waiting for the lock, release it since no one else can
+        try {
+          ((FileLock) result).close();
+        } catch (IOException e) {
+          // Nothing to report to
+        }
+      }
+    }
+  }
+
+  private final FileSystem fileSystem;
+  private final Executor executor;
+  private final int maxInFlight;
+  private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * Creates a new asynchronous facade.
+   *
+   * @param  maxInFlight  The maximum number of operations running at once
+   */
+  public AsyncFileSystem(FileSystem fileSystem, Executor executor, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight < 1: " + maxInFlight);
+    }
+    this.fileSystem = fileSystem;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Creates a new asynchronous facade, using the {@linkplain #DEFAULT_MAX_IN_FLIGHT default maximum in-flight operations}.
+   */
+  public AsyncFileSystem(FileSystem fileSystem, Executor executor) {
+    this(fileSystem, executor, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  public FileSystem getFileSystem() {
+    return fileSystem;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Gets the number of operations currently running.
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Gets the number of operations waiting to start.
+   */
+  public int getQueued() {
+    return queue.size();
+  }
+
+  private <T> CompletableFuture<T> submit(Operation<T> operation) {
+    Task<T> task = new Task<>(operation);
+    queue.add(task);
+    startQueued();
+    return task.future;
+  }
+
+  /**
+   * Starts queued tasks until either the queue is empty or the maximum in-flight is reached.
+   * A task is always queued before this is called, and in-flight is always decremented before
+   * this is called, so no queued task can be left behind.
+   */
+  private void startQueued() {
+    while (!queue.isEmpty()) {
+      int current = inFlight.get();
+      if (current >= maxInFlight) {
+        return;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        Task<?> task = queue.poll();
+        if (task == null) {
+          // Taken by another thread
+          inFlight.decrementAndGet();
+        } else {
+          try {
+            executor.execute(task);
+          } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+            inFlight.decrementAndGet();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Lists the children of the given path.
+   * The listing is fully read, so no iterator needs to be closed.
+   *
+   * @see FileSystem#list(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<List<Path>> list(Path path) {
+    return submit(() -> {
+      List<Path> children = new ArrayList<>();
+      try (PathIterator iter = fileSystem.list(path)) {
+        while (iter.hasNext()) {
+          children.add(iter.next());
+        }
+      }
+      return children;
+    });
+  }
+
+  /**
+   * Lists the children of the given path, along with their attributes.
+   * The listing is fully read, so no iterator needs to be closed.
+   *
+   * @see FileSystem#listEntries(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<List<DirectoryEntry>> listEntries(Path path) {
+    return submit(() -> {
+      List<DirectoryEntry> entries = new ArrayList<>();
+      try (DirectoryEntryIterator iter = fileSystem.listEntries(path)) {
+        while (iter.hasNext()) {
+          entries.add(iter.next());
+        }
+      }
+      return entries;
+    });
+  }
+
+  /**
+   * @see FileSystem#readAttributes(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<FileAttributes> readAttributes(Path path) {
+    return submit(() -> fileSystem.readAttributes(path));
+  }
+
+  /**
+   * @see FileSystem#delete(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<Void> delete(Path path) {
+    return submit(() -> {
+      fileSystem.delete(path);
+      return null;
+    });
+  }
+
+  /**
+   * @see FileSystem#size(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<Long> size(Path path) {
+    return submit(() -> fileSystem.size(path));
+  }
+
+  /**
+   * @see FileSystem#createFile(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<Path> createFile(Path path) {
+    return submit(() -> fileSystem.createFile(path));
+  }
+
+  /**
+   * @see FileSystem#createDirectory(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<Path> createDirectory(Path path) {
+    return submit(() -> fileSystem.createDirectory(path));
+  }
+
+  /**
+   * Locks a file in exclusive mode.
+   * The operation remains in-flight while waiting for the lock.
+   *
+   * @see FileSystem#lock(com.aoapps.io.filesystems.Path)
+   */
+  public CompletableFuture<FileLock> lock(Path path) {
+    return submit(() -> fileSystem.lock(path));
+  }
+
+  /**
+   * Locks a range of a file, in either shared or exclusive mode.
+   * The operation remains in-flight while waiting for the lock.
+   *
+   * @see FileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)
+   */
+  public CompletableFuture<FileLock> lock(Path path, long position, long size, boolean shared) {
+    return submit(() -> fileSystem.lock(path, position, size, shared));
+  }
+}
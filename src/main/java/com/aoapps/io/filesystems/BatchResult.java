@@ -0,0 +1,100 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+
+/**
+ * The result of one path of a batch operation, which is either a value or the
+ * exception that prevented the operation on that path.
+ *
+ * @see FileSystem#deleteAll(java.util.Collection)
+ * @see FileSystem#sizeAll(java.util.Collection)
+ * @see FileSystem#createFiles(java.util.Collection)
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class BatchResult<T> {
+
+  /**
+   * Creates a successful result.
+   */
+  public static <T> BatchResult<T> success(Path path, T value) {
+    return new BatchResult<>(path, value, null);
+  }
+
+  /**
+   * Creates a failed result.
+   */
+  public static <T> BatchResult<T> failure(Path path, IOException failure) {
+    if (failure == null) {
+      throw new IllegalArgumentException("failure is null");
+    }
+    return new BatchResult<>(path, null, failure);
+  }
+
+  private final Path path;
+  private final T value;
+  private final IOException failure;
+
+  private BatchResult(Path path, T value, IOException failure) {
+    this.path = path;
+    this.value = value;
+    this.failure = failure;
+  }
+
+  @Override
+  public String toString() {
+    return path + ": " + (failure == null ? value : failure);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public boolean isSuccess() {
+    return failure == null;
+  }
+
+  /**
+   * Gets the value of a successful result.
+   *
+   * @throws IOException the failure of an unsuccessful result
+   */
+  public T get() throws IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    return value;
+  }
+
+  /**
+   * Gets the failure of an unsuccessful result.
+   *
+   * @return  the failure or {@code null} when successful
+   */
+  public IOException getFailure() {
+    return failure;
+  }
+}
@@ -0,0 +1,493 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A file system that caches the metadata of the wrapped file system: the results of
+ * {@link FileSystem#size(com.aoapps.io.filesystems.Path)}, {@link FileSystem#list(com.aoapps.io.filesystems.Path)}
+ * and {@link FileSystem#readAttributes(com.aoapps.io.filesystems.Path)}, including whether the path exists.
+ *
+ * <p>The cache is bounded, evicting the least recently used entries, and each entry expires
+ * a fixed time after being cached.  It is striped, so concurrent use of different paths does
+ * not contend.</p>
+ *
+ * <p>Changes made through this wrapper invalidate exactly the entries they affect: the path
+ * itself, and the listing and attributes of its parent.  This includes channels opened for
+ * writing, which invalidate the path both when opened and when closed.  Changes made by other
+ * means, including directly to the wrapped file system, are seen once the entries expire or
+ * are {@linkplain #invalidateAll() invalidated}.</p>
+ *
+ * <p>A directory is listed in full on the first call to {@link #list(com.aoapps.io.filesystems.Path)},
+ * so any failure while iterating is thrown by the call itself.</p>
+ *
+ * <p>Channels opened for writing are wrapped, so any faster paths of the wrapped channel are not available.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class CachingFileSystem extends FileSystemWrapper {
+
+  /**
+   * The default maximum number of cached entries.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+  /**
+   * The default time, in milliseconds, entries remain cached.
+   */
+  public static final long DEFAULT_TTL_MILLIS = 1000;
+
+  private enum Kind {
+    ATTRIBUTES,
+    SIZE,
+    LIST
+  }
+
+  private static final Kind[] kinds = Kind.values();
+
+  /**
+   * A cached result of a path of the wrapped file system.
+   */
+  private static final class Key {
+
+    private final Kind kind;
+    private final Path path;
+
+    private Key(Kind kind, Path path) {
+      this.kind = kind;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return kind == other.kind && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, path);
+    }
+  }
+
+  /**
+   * Cached for a path that does not exist.
+   */
+  private static final Object MISSING = new Object();
+
+  private final ExpiringCache<Key, Object> cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a new caching filesystem, wrapping the given filesystem.
+   *
+   * @param  maxEntries  The maximum number of cached entries
+   * @param  ttl         The time entries remain cached
+   */
+  public CachingFileSystem(FileSystem wrappedFileSystem, int maxEntries, long ttl, TimeUnit unit) {
+    super(wrappedFileSystem);
+    this.cache = new ExpiringCache<>(maxEntries, unit.toNanos(ttl));
+  }
+
+  /**
+   * Uses the {@linkplain #DEFAULT_MAX_ENTRIES default maximum entries} and {@linkplain #DEFAULT_TTL_MILLIS default time to live}.
+   */
+  public CachingFileSystem(FileSystem wrappedFileSystem) {
+    this(wrappedFileSystem, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gets the number of calls answered from the cache.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of calls passed to the wrapped file system.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Removes all cached entries, such as after changes made by other means.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Removes the cached entries of a path of the wrapped file system, along with
+   * the listing and attributes of its parent.
+   */
+  private void invalidate(Path wrappedPath) {
+    for (Kind kind : kinds) {
+      cache.invalidate(new Key(kind, wrappedPath));
+    }
+    Path parent = wrappedPath.getParent();
+    if (parent != null) {
+      cache.invalidate(new Key(Kind.LIST, parent));
+      cache.invalidate(new Key(Kind.ATTRIBUTES, parent));
+    }
+  }
+
+  private void invalidateAll(List<Path> wrappedPaths) {
+    for (Path wrappedPath : wrappedPaths) {
+      invalidate(wrappedPath);
+    }
+  }
+
+  /**
+   * Loads a value from the wrapped file system.
+   */
+  @FunctionalInterface
+  private static interface Loader<V> {
+    V load() throws IOException;
+  }
+
+  /**
+   * Gets a cached value, loading and caching it when not cached.
+   * {@link NoSuchFileException} is also cached.
+   */
+  @SuppressWarnings("unchecked")
+  private <V> V get(Kind kind, Path wrappedPath, Loader<V> loader) throws IOException {
+    Key key = new Key(kind, wrappedPath);
+    Object value = cache.get(key);
+    if (value != null) {
+      hits.increment();
+      if (value == MISSING) {
+        throw new NoSuchFileException(wrappedPath.toString());
+      }
+      return (V) value;
+    }
+    misses.increment();
+    long stamp = cache.getStamp(key);
+    V loaded;
+    try {
+      loaded = loader.load();
+    } catch (NoSuchFileException e) {
+      cache.put(key, MISSING, stamp);
+      throw e;
+    }
+    cache.put(key, loaded, stamp);
+    return loaded;
+  }
+
+  /**
+   * Lists the directory in full on the first call, then from the cache.
+   */
+  @Override
+  public PathIterator list(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    PathWrapper pathWrapper = getPathWrapper(path);
+    List<Path> children = get(Kind.LIST, pathWrapper.wrappedPath, () -> {
+      List<Path> list = new ArrayList<>();
+      try (PathIterator iter = wrappedFileSystem.list(pathWrapper.wrappedPath)) {
+        while (iter.hasNext()) {
+          list.add(iter.next());
+        }
+      } catch (DirectoryIteratorException e) {
+        throw e.getCause();
+      }
+      return Collections.unmodifiableList(list);
+    });
+    Iterator<Path> iter = children.iterator();
+    return new PathIterator() {
+      @Override
+      public boolean hasNext() {
+        return iter.hasNext();
+      }
+
+      @Override
+      public Path next() throws NoSuchElementException {
+        return wrapSubPath(pathWrapper, iter.next());
+      }
+
+      @Override
+      public void close() {
+        // Nothing to do
+      }
+    };
+  }
+
+  @Override
+  public FileAttributes readAttributes(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    return get(Kind.ATTRIBUTES, wrappedPath, () -> wrappedFileSystem.readAttributes(wrappedPath));
+  }
+
+  @Override
+  public long size(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    return get(Kind.SIZE, wrappedPath, () -> wrappedFileSystem.size(wrappedPath));
+  }
+
+  /**
+   * Answers from the cache where possible, passing only the remaining paths on to the batch operation.
+   */
+  @Override
+  public List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    int size = paths.size();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchResult<Long>[] results = new BatchResult[size];
+    List<Path> remaining = new ArrayList<>(size);
+    List<Path> remainingWrapped = new ArrayList<>(size);
+    List<Long> remainingStamps = new ArrayList<>(size);
+    int i = 0;
+    for (Path path : paths) {
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+      Path wrappedPath = unwrapPath(path);
+      Key key = new Key(Kind.SIZE, wrappedPath);
+      Object value = cache.get(key);
+      if (value == MISSING) {
+        hits.increment();
+        results[i] = BatchResult.failure(path, new NoSuchFileException(wrappedPath.toString()));
+      } else if (value != null) {
+        hits.increment();
+        results[i] = BatchResult.success(path, (Long) value);
+      } else {
+        misses.increment();
+        remaining.add(path);
+        remainingWrapped.add(wrappedPath);
+        remainingStamps.add(cache.getStamp(key));
+      }
+      i++;
+    }
+    if (!remaining.isEmpty()) {
+      List<BatchResult<Long>> remainingResults = rewrapResults(remaining, wrappedFileSystem.sizeAll(remainingWrapped));
+      int r = 0;
+      for (i = 0; i < size; i++) {
+        if (results[i] == null) {
+          BatchResult<Long> result = remainingResults.get(r);
+          Key key = new Key(Kind.SIZE, remainingWrapped.get(r));
+          long stamp = remainingStamps.get(r);
+          if (result.isSuccess()) {
+            try {
+              cache.put(key, result.get(), stamp);
+            } catch (IOException e) {
+              throw new AssertionError(e);
+            }
+          } else if (result.getFailure() instanceof NoSuchFileException) {
+            cache.put(key, MISSING, stamp);
+          }
+          results[i] = result;
+          r++;
+        }
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  @Override
+  public void delete(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    try {
+      wrappedFileSystem.delete(wrappedPath);
+    } finally {
+      invalidate(wrappedPath);
+    }
+  }
+
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    List<Path> unwrapped = unwrapPaths(paths);
+    try {
+      return rewrapResults(new ArrayList<>(paths), wrappedFileSystem.deleteAll(unwrapped));
+    } finally {
+      invalidateAll(unwrapped);
+    }
+  }
+
+  @Override
+  public Path createFile(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    try {
+      wrappedFileSystem.createFile(wrappedPath);
+    } finally {
+      invalidate(wrappedPath);
+    }
+    return path;
+  }
+
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    List<Path> unwrapped = unwrapPaths(paths);
+    try {
+      return super.createFiles(paths);
+    } finally {
+      invalidateAll(unwrapped);
+    }
+  }
+
+  @Override
+  public Path createDirectory(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    try {
+      wrappedFileSystem.createDirectory(wrappedPath);
+    } finally {
+      invalidate(wrappedPath);
+    }
+    return path;
+  }
+
+  /**
+   * Invalidates the path and each of its parents, since any of them may have been created.
+   */
+  @Override
+  public Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    try {
+      wrappedFileSystem.createDirectories(wrappedPath);
+    } finally {
+      for (Path p = wrappedPath; p != null; p = p.getParent()) {
+        invalidate(p);
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Checks if options open a file only for reading, without any other effect.
+   */
+  private static boolean isReadOnly(OpenOption... options) {
+    for (OpenOption option : options) {
+      if (option != StandardOpenOption.READ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Channels opened only for reading are passed through as-is.  Other channels invalidate
+   * the path when opened, and are wrapped to invalidate the path again when closed.
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path wrappedPath = unwrapPath(path);
+    if (isReadOnly(options)) {
+      return wrappedFileSystem.newByteChannel(wrappedPath, options);
+    }
+    SeekableByteChannel wrappedChannel;
+    try {
+      wrappedChannel = wrappedFileSystem.newByteChannel(wrappedPath, options);
+    } finally {
+      invalidate(wrappedPath);
+    }
+    return new SeekableByteChannel() {
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+        return wrappedChannel.read(dst);
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+        return wrappedChannel.write(src);
+      }
+
+      @Override
+      public long position() throws IOException {
+        return wrappedChannel.position();
+      }
+
+      @Override
+      public SeekableByteChannel position(long newPosition) throws IOException {
+        wrappedChannel.position(newPosition);
+        return this;
+      }
+
+      @Override
+      public long size() throws IOException {
+        return wrappedChannel.size();
+      }
+
+      @Override
+      public SeekableByteChannel truncate(long size) throws IOException {
+        wrappedChannel.truncate(size);
+        return this;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return wrappedChannel.isOpen();
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          wrappedChannel.close();
+        } finally {
+          invalidate(wrappedPath);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A bounded cache of open channels, shared between users by reference counting.
+ * Each file may have one channel open for each {@linkplain Use use}.
+ *
+ * <p>Channels read by {@link SharedReadChannel} are never used for locks.  The channel
+ * of a view is closed when a thread is interrupted during its I/O, and this must not
+ * close the channel holding the lock of the {@link LockTable}.  A channel found to be
+ * closed is removed from the cache, and the next use opens a new channel.</p>
+ *
+ * <p>Once more than the maximum channels are open, the least recently used channels
+ * that are not in use are closed.  Channels in use are never closed, so the maximum
+ * may be temporarily exceeded.</p>
+ *
+ * <p>On some platforms, closing any channel of a file releases all the locks of the
+ * process on the file.  To not release the locks of the {@link LockTable}, a channel is
+ * not closed while its file is locked.  It is closed by a later eviction instead.
+ * The lock is looked up by the real path of the file, resolved once when the channel
+ * is opened, so a channel opened through a symbolic link is also kept open.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ChannelCache {
+
+  /**
+   * The use of a channel, each cached separately.
+   */
+  enum Use {
+    /**
+     * Positional reads by {@link SharedReadChannel}.
+     */
+    READ(StandardOpenOption.READ),
+
+    /**
+     * Shared locks by {@link LockTable}.
+     */
+    LOCK_SHARED(StandardOpenOption.READ),
+
+    /**
+     * Exclusive locks by {@link LockTable}.
+     */
+    LOCK_EXCLUSIVE(StandardOpenOption.WRITE);
+
+    private final StandardOpenOption option;
+
+    private Use(StandardOpenOption option) {
+      this.option = option;
+    }
+  }
+
+  private static final class Key {
+
+    private final java.nio.file.Path file;
+    private final Use use;
+
+    private Key(java.nio.file.Path file, Use use) {
+      this.file = file;
+      this.use = use;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return use == other.use && file.equals(other.file);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, use);
+    }
+  }
+
+  /**
+   * A channel along with its number of users, guarded by the cache.
+   */
+  private static final class Entry {
+
+    private final Key key;
+
+    /**
+     * The {@linkplain LockTable#getKey(java.nio.file.Path) key} of the file in the lock table.
+     */
+    private final java.nio.file.Path lockKey;
+    private final FileChannel channel;
+    private int references;
+
+    private Entry(Key key, java.nio.file.Path lockKey, FileChannel channel) {
+      this.key = key;
+      this.lockKey = lockKey;
+      this.channel = channel;
+    }
+  }
+
+  /**
+   * A single use of a cached channel, which must be released once no longer used.
+   */
+  final class Handle {
+
+    private final Entry entry;
+    private boolean released;
+
+    private Handle(Entry entry) {
+      this.entry = entry;
+    }
+
+    FileChannel getChannel() {
+      return entry.channel;
+    }
+
+    /**
+     * Removes the channel from the cache after it has been closed, such as by an interrupt,
+     * so the next use opens a new channel.  This use must still be released.
+     */
+    void invalidate() {
+      synchronized (ChannelCache.this) {
+        remove(entry);
+      }
+    }
+
+    /**
+     * Gets a new use of a channel for the same file and use, opening a new channel when
+     * this channel is no longer cached or closed.  This use must still be released.
+     */
+    Handle reacquire() throws IOException {
+      return acquire(entry.key);
+    }
+
+    /**
+     * Releases this use of the channel.  Releasing more than once has no effect.
+     */
+    void release() {
+      synchronized (ChannelCache.this) {
+        if (!released) {
+          released = true;
+          entry.references--;
+          evict();
+        }
+      }
+    }
+  }
+
+  private final int maxOpen;
+  private final LockTable lockTable;
+
+  /**
+   * The cached channels, in order of least recently used.  Guarded by the cache.
+   */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Channels no longer cached but still in use or locked.  Guarded by the cache.
+   */
+  private final List<Entry> closing = new ArrayList<>();
+
+  /**
+   * @param  maxOpen  The maximum number of channels open while not in use
+   */
+  ChannelCache(int maxOpen, LockTable lockTable) {
+    if (maxOpen < 1) {
+      throw new IllegalArgumentException("maxOpen < 1: " + maxOpen);
+    }
+    this.maxOpen = maxOpen;
+    this.lockTable = lockTable;
+  }
+
+  int getMaxOpen() {
+    return maxOpen;
+  }
+
+  /**
+   * Gets a channel, opening it when not already cached or when the cached channel has been closed.
+   */
+  Handle acquire(java.nio.file.Path file, Use use) throws IOException {
+    return acquire(new Key(file, use));
+  }
+
+  private Handle acquire(Key key) throws IOException {
+    synchronized (this) {
+      Entry entry = getOpen(key);
+      if (entry != null) {
+        entry.references++;
+        return new Handle(entry);
+      }
+    }
+    // Open without holding the lock
+    FileChannel channel = FileChannel.open(key.file, key.use.option);
+    boolean closeChannel = true;
+    try {
+      java.nio.file.Path lockKey = LockTable.getKey(key.file);
+      synchronized (this) {
+        Entry entry = getOpen(key);
+        if (entry == null) {
+          entry = new Entry(key, lockKey, channel);
+          entries.put(key, entry);
+          closeChannel = false;
+        }
+        entry.references++;
+        Handle handle = new Handle(entry);
+        evict();
+        return handle;
+      }
+    } finally {
+      if (closeChannel) {
+        // Opened concurrently or failed
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Gets a cached channel that is still open.  A closed channel is removed from the cache.
+   * Must be holding the lock on the cache.
+   *
+   * @return  the entry or {@code null} when not cached
+   */
+  private Entry getOpen(Key key) {
+    assert Thread.holdsLock(this);
+    Entry entry = entries.get(key);
+    if (entry != null && !entry.channel.isOpen()) {
+      remove(entry);
+      entry = null;
+    }
+    return entry;
+  }
+
+  /**
+   * Removes a closed channel from the cache, when still cached.  It is not added to
+   * {@link #closing}, since it is already closed.
+   * Must be holding the lock on the cache.
+   */
+  private void remove(Entry entry) {
+    assert Thread.holdsLock(this);
+    entries.remove(entry.key, entry);
+  }
+
+  /**
+   * Removes the channels of a file, such as when the file is deleted.  Channels are
+   * closed once no longer in use.
+   */
+  synchronized void invalidate(java.nio.file.Path file) {
+    for (Use use : Use.values()) {
+      Entry entry = entries.remove(new Key(file, use));
+      if (entry != null) {
+        closing.add(entry);
+      }
+    }
+    evict();
+  }
+
+  /**
+   * Removes all channels.  Channels are closed once no longer in use.
+   */
+  synchronized void invalidateAll() {
+    closing.addAll(entries.values());
+    entries.clear();
+    evict();
+  }
+
+  /**
+   * Closes any channels no longer cached, then the least recently used channels over the maximum.
+   * Must be holding the lock on the cache.
+   */
+  private void evict() {
+    assert Thread.holdsLock(this);
+    Iterator<Entry> closingIter = closing.iterator();
+    while (closingIter.hasNext()) {
+      Entry entry = closingIter.next();
+      if (entry.references == 0 && lockTable.closeIfUnlocked(entry.lockKey, entry.channel)) {
+        closingIter.remove();
+      }
+    }
+    Iterator<Entry> iter = entries.values().iterator();
+    while (entries.size() > maxOpen && iter.hasNext()) {
+      Entry entry = iter.next();
+      if (entry.references == 0 && lockTable.closeIfUnlocked(entry.lockKey, entry.channel)) {
+        iter.remove();
+      }
+    }
+  }
+}
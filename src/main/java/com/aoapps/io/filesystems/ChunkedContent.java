@@ -0,0 +1,258 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The contents of a regular file in a {@link TempFileSystem}, stored in
+ * fixed-size chunks of direct memory outside the Java heap.
+ *
+ * <p>Chunks are only allocated when written.  Any region never written, such as
+ * when writing beyond the end of the file, is a hole that reads as zeros and
+ * uses no memory.</p>
+ *
+ * <p>Any number of threads may read at once, while writes are exclusive.</p>
+ *
+ * <p>The content is reference counted, starting with the single reference held by
+ * its directory entry.  Each open channel holds another.  Memory is returned once
+ * the last reference is released, so a deleted file remains readable by its open
+ * channels.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ChunkedContent {
+
+  private static final ByteBuffer[] EMPTY_CHUNKS = {};
+
+  /**
+   * The maximum number of chunks, limited by the largest array.
+   */
+  private static final int MAX_CHUNKS = Integer.MAX_VALUE - 8;
+
+  private final TempFileSystem fileSystem;
+  private final int chunkShift;
+  private final int chunkMask;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * The chunks, with <code>null</code> for any hole.  Guarded by {@link #lock}.
+   */
+  private ByteBuffer[] chunks = EMPTY_CHUNKS;
+
+  /**
+   * Written while holding the write lock.
+   */
+  private volatile long size;
+
+  /**
+   * Guarded by {@link #lock}.
+   */
+  private int references = 1;
+
+  ChunkedContent(TempFileSystem fileSystem) {
+    this.fileSystem = fileSystem;
+    int chunkSize = fileSystem.getChunkSize();
+    this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+    this.chunkMask = chunkSize - 1;
+  }
+
+  long size() {
+    return size;
+  }
+
+  /**
+   * Adds a reference.
+   *
+   * @return  <code>false</code> when already released and may no longer be referenced
+   */
+  boolean retain() {
+    lock.writeLock().lock();
+    try {
+      if (references == 0) {
+        return false;
+      }
+      references++;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Releases a reference, returning all memory once no references remain.
+   */
+  void release() {
+    lock.writeLock().lock();
+    try {
+      if (references <= 0) {
+        throw new IllegalStateException();
+      }
+      if (--references == 0) {
+        freeFrom(0);
+        chunks = EMPTY_CHUNKS;
+        size = 0;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Frees all chunks at and after the given index.
+   * Must be holding the write lock.
+   */
+  private void freeFrom(int index) {
+    int freed = 0;
+    for (int i = index; i < chunks.length; i++) {
+      if (chunks[i] != null) {
+        chunks[i] = null;
+        freed++;
+      }
+    }
+    fileSystem.freeChunks(freed);
+  }
+
+  /**
+   * Reads bytes starting at the given position.
+   *
+   * @return  the number of bytes read, or <code>-1</code> when at or beyond the end of the file
+   */
+  int read(ByteBuffer dst, long position) {
+    lock.readLock().lock();
+    try {
+      long available = size - position;
+      if (available <= 0) {
+        return -1;
+      }
+      int count = (int) Math.min(dst.remaining(), available);
+      int remaining = count;
+      while (remaining > 0) {
+        int index = (int) (position >>> chunkShift);
+        int offset = (int) position & chunkMask;
+        int len = Math.min(remaining, chunkMask + 1 - offset);
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+          // Hole
+          for (int i = 0; i < len; i++) {
+            dst.put((byte) 0);
+          }
+        } else {
+          ByteBuffer src = chunk.duplicate();
+          src.limit(offset + len).position(offset);
+          dst.put(src);
+        }
+        position += len;
+        remaining -= len;
+      }
+      return count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes bytes starting at the given position, extending the file as needed.
+   * Writing beyond the end of the file leaves a hole.
+   *
+   * @param  position  The position to write at, or <code>-1</code> to append at the end of the file
+   *
+   * @return  the position immediately following the bytes written
+   *
+   * @throws IOException when the memory limit of the file system would be exceeded, or the file
+   *                     would exceed its maximum size.  Any bytes written before the limit was
+   *                     reached remain written.
+   */
+  long write(ByteBuffer src, long position) throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (position == -1) {
+        position = size;
+      }
+      if (((position + src.remaining()) >>> chunkShift) >= MAX_CHUNKS) {
+        throw new IOException("Maximum file size exceeded: " + (position + src.remaining()));
+      }
+      while (src.hasRemaining()) {
+        int index = (int) (position >>> chunkShift);
+        int offset = (int) position & chunkMask;
+        int len = Math.min(src.remaining(), chunkMask + 1 - offset);
+        if (index >= chunks.length) {
+          chunks = Arrays.copyOf(chunks, (int) Math.min(MAX_CHUNKS, Math.max(index + 1L, chunks.length * 2L)));
+        }
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+          chunk = fileSystem.allocateChunk();
+          chunks[index] = chunk;
+        }
+        ByteBuffer slice = src.duplicate();
+        slice.limit(slice.position() + len);
+        ByteBuffer dst = chunk.duplicate();
+        dst.position(offset);
+        dst.put(slice);
+        src.position(src.position() + len);
+        position += len;
+        if (position > size) {
+          size = position;
+        }
+      }
+      return position;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Truncates to the given size, returning the memory of any chunks no longer used.
+   * Does nothing when already the given size or smaller.
+   */
+  void truncate(long newSize) {
+    lock.writeLock().lock();
+    try {
+      if (newSize < size) {
+        int offset = (int) newSize & chunkMask;
+        int keep = (int) (newSize >>> chunkShift) + (offset == 0 ? 0 : 1);
+        if (keep < chunks.length) {
+          freeFrom(keep);
+        }
+        if (offset != 0) {
+          // Zero the tail of the last chunk, so it reads as zeros if later extended
+          ByteBuffer chunk = chunks[keep - 1];
+          if (chunk != null) {
+            for (int i = offset; i <= chunkMask; i++) {
+              chunk.put(i, (byte) 0);
+            }
+          }
+        }
+        size = newSize;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
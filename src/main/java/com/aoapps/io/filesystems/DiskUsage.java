@@ -0,0 +1,210 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Totals the disk usage of entire trees in parallel, using a {@link FileTreeWalker}.
+ *
+ * <p>Sizes come from the attributes read during directory listings, so file systems
+ * that implement {@link FileSystem#listEntries(com.aoapps.io.filesystems.Path)} directly,
+ * such as {@link JavaFileSystem} and {@link TempFileSystem}, require no additional call
+ * per file.</p>
+ *
+ * <p>The totals of each directory are reported to a {@link Listener} as soon as its
+ * subtree is complete, so partial results are available long before the walk finishes.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DiskUsage {
+
+  /**
+   * The totals for a subtree.
+   */
+  public static final class Usage {
+
+    private final long bytes;
+    private final long files;
+    private final long directories;
+
+    public Usage(long bytes, long files, long directories) {
+      this.bytes = bytes;
+      this.files = files;
+      this.directories = directories;
+    }
+
+    @Override
+    public String toString() {
+      return bytes + " bytes, " + files + " files, " + directories + " directories";
+    }
+
+    /**
+     * Gets the total size, in bytes, of everything that is not a directory.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Gets the number of file system objects that are not directories.
+     */
+    public long getFiles() {
+      return files;
+    }
+
+    /**
+     * Gets the number of directories, including the top of the subtree itself.
+     */
+    public long getDirectories() {
+      return directories;
+    }
+  }
+
+  /**
+   * Receives the totals for each directory as its subtree is completed.
+   * Called concurrently from multiple threads.
+   */
+  @FunctionalInterface
+  public static interface Listener {
+    /**
+     * Called once all descendants of the given directory have been totaled.
+     * Subdirectories are always reported before their parent.
+     */
+    void subtreeCompleted(Path directory, Usage usage);
+  }
+
+  /**
+   * The running totals of a directory while its subtree is being walked.
+   */
+  private static final class Accumulator {
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong directories = new AtomicLong(1);
+
+    private void add(Usage usage) {
+      bytes.addAndGet(usage.bytes);
+      files.addAndGet(usage.files);
+      directories.addAndGet(usage.directories);
+    }
+
+    private Usage toUsage() {
+      return new Usage(bytes.get(), files.get(), directories.get());
+    }
+  }
+
+  private final FileTreeWalker walker;
+
+  /**
+   * Creates a calculator that uses the given walker.
+   */
+  public DiskUsage(FileTreeWalker walker) {
+    this.walker = walker;
+  }
+
+  /**
+   * Creates a calculator that uses a {@linkplain FileTreeWalker#FileTreeWalker() default walker}.
+   */
+  public DiskUsage() {
+    this(new FileTreeWalker());
+  }
+
+  public FileTreeWalker getWalker() {
+    return walker;
+  }
+
+  /**
+   * Totals the tree starting at the given path.
+   * Symbolic links are counted as files and not followed.
+   * Directories that are removed during the walk are counted as empty.
+   *
+   * @param  listener  Notified of the totals of every directory, including the starting directory,
+   *                   or {@code null} for only the overall total
+   *
+   * @return  the totals for the entire tree
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws UnsupportedOperationException if attributes are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  public Usage diskUsage(Path path, Listener listener) throws IOException {
+    final Map<Path, Accumulator> accumulators = new ConcurrentHashMap<>();
+    final Usage[] result = new Usage[1];
+    walker.walk(path, new FileTreeWalker.Visitor() {
+      @Override
+      public boolean preVisitDirectory(DirectoryEntry directory) {
+        accumulators.put(directory.getPath(), new Accumulator());
+        return true;
+      }
+
+      @Override
+      public void visitFile(DirectoryEntry file) {
+        Path p = file.getPath();
+        Accumulator parent = p.equals(path) ? null : accumulators.get(p.getParent());
+        if (parent == null) {
+          // Starting path is not a directory
+          result[0] = new Usage(file.getAttributes().getSize(), 1, 0);
+        } else {
+          parent.bytes.addAndGet(file.getAttributes().getSize());
+          parent.files.incrementAndGet();
+        }
+      }
+
+      @Override
+      public void visitDirectoryFailed(DirectoryEntry directory, IOException e) throws IOException {
+        if (!(e instanceof NoSuchFileException)) {
+          throw e;
+        }
+      }
+
+      @Override
+      public void postVisitDirectory(DirectoryEntry directory) {
+        Path dir = directory.getPath();
+        Usage usage = accumulators.remove(dir).toUsage();
+        if (listener != null) {
+          listener.subtreeCompleted(dir, usage);
+        }
+        if (dir.equals(path)) {
+          result[0] = usage;
+        } else {
+          accumulators.get(dir.getParent()).add(usage);
+        }
+      }
+    });
+    return result[0];
+  }
+
+  /**
+   * Totals the tree starting at the given path.
+   *
+   * @see #diskUsage(com.aoapps.io.filesystems.Path, com.aoapps.io.filesystems.DiskUsage.Listener)
+   */
+  public Usage diskUsage(Path path) throws IOException {
+    return diskUsage(path, null);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache where each entry expires a fixed time after being added.
+ *
+ * <p>Keys are spread over independent stripes by hash, each a {@link LinkedHashMap} in access order
+ * with its own lock, so threads using different stripes do not contend.  Each stripe holds an equal
+ * share of the maximum entries and evicts its own least recently used entries.</p>
+ *
+ * <p>To not cache a value that was loaded before a concurrent invalidation, a value is added only
+ * when its stripe has not been invalidated since the {@linkplain #getStamp(java.lang.Object) stamp}
+ * taken before loading.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ExpiringCache<K, V> {
+
+  private static final class CacheEntry<V> {
+
+    private final V value;
+    private final long expiresNanos;
+
+    private CacheEntry(V value, long expiresNanos) {
+      this.value = value;
+      this.expiresNanos = expiresNanos;
+    }
+  }
+
+  /**
+   * A single stripe, with all state guarded by the stripe itself.
+   */
+  private static final class Stripe<K, V> extends LinkedHashMap<K, CacheEntry<V>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+
+    /**
+     * Incremented on every invalidation of the stripe.
+     */
+    private long generation;
+
+    private Stripe(int maxEntries) {
+      super(16, 0.75f, true);
+      this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+      return size() > maxEntries;
+    }
+  }
+
+  private final long ttlNanos;
+  private final Stripe<K, V>[] stripes;
+
+  /**
+   * @param  maxEntries  The maximum number of entries, shared equally by the stripes
+   * @param  ttlNanos    The time each entry remains cached after being added
+   */
+  ExpiringCache(int maxEntries, long ttlNanos) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries < 1: " + maxEntries);
+    }
+    if (ttlNanos < 1) {
+      throw new IllegalArgumentException("ttlNanos < 1: " + ttlNanos);
+    }
+    this.ttlNanos = ttlNanos;
+    // A power of two, of several stripes per processor, but not more stripes than entries
+    int numStripes = Math.min(
+        Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1) << 1),
+        Integer.highestOneBit(maxEntries)
+    );
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Stripe<K, V>[] newStripes = new Stripe[numStripes];
+    for (int i = 0; i < numStripes; i++) {
+      // Spread the remainder over the first stripes
+      newStripes[i] = new Stripe<>(maxEntries / numStripes + (i < maxEntries % numStripes ? 1 : 0));
+    }
+    this.stripes = newStripes;
+  }
+
+  private Stripe<K, V> getStripe(K key) {
+    int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * Gets a value.
+   *
+   * @return  the value or {@code null} when not cached or expired
+   */
+  V get(K key) {
+    Stripe<K, V> stripe = getStripe(key);
+    synchronized (stripe) {
+      CacheEntry<V> entry = stripe.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (System.nanoTime() - entry.expiresNanos >= 0) {
+        stripe.remove(key);
+        return null;
+      }
+      return entry.value;
+    }
+  }
+
+  /**
+   * Gets the stamp to be given to {@link #put(java.lang.Object, java.lang.Object, long)},
+   * taken before loading the value.
+   */
+  long getStamp(K key) {
+    Stripe<K, V> stripe = getStripe(key);
+    synchronized (stripe) {
+      return stripe.generation;
+    }
+  }
+
+  /**
+   * Adds a value, unless its stripe has been invalidated since the given stamp.
+   *
+   * @param  stamp  The stamp taken before loading the value
+   *
+   * @see  #getStamp(java.lang.Object)
+   */
+  void put(K key, V value, long stamp) {
+    Stripe<K, V> stripe = getStripe(key);
+    synchronized (stripe) {
+      if (stripe.generation == stamp) {
+        stripe.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+      }
+    }
+  }
+
+  /**
+   * Removes a value.
+   */
+  void invalidate(K key) {
+    Stripe<K, V> stripe = getStripe(key);
+    synchronized (stripe) {
+      stripe.generation++;
+      stripe.remove(key);
+    }
+  }
+
+  /**
+   * Removes all values.
+   */
+  void invalidateAll() {
+    for (Stripe<K, V> stripe : stripes) {
+      synchronized (stripe) {
+        stripe.generation++;
+        stripe.clear();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of values, including any expired but not yet removed.
+   */
+  int size() {
+    int size = 0;
+    for (Stripe<K, V> stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+}
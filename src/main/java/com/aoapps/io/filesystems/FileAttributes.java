@@ -0,0 +1,121 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The basic attributes of a file system object.
+ *
+ * @see FileSystem#readAttributes(com.aoapps.io.filesystems.Path)
+ * @see BasicFileAttributes
+ *
+ * @author  AO Industries, Inc.
+ */
+public class FileAttributes {
+
+  /**
+   * The type of a file system object.
+   */
+  public enum Type {
+    REGULAR_FILE,
+    DIRECTORY,
+    SYMBOLIC_LINK,
+    OTHER;
+
+    /**
+     * Gets the type from Java attributes.
+     */
+    public static Type valueOf(BasicFileAttributes attributes) {
+      if (attributes.isRegularFile()) {
+        return REGULAR_FILE;
+      }
+      if (attributes.isDirectory()) {
+        return DIRECTORY;
+      }
+      if (attributes.isSymbolicLink()) {
+        return SYMBOLIC_LINK;
+      }
+      return OTHER;
+    }
+  }
+
+  private final Type type;
+  private final long size;
+  private final long lastModified;
+
+  /**
+   * Creates new attributes.
+   *
+   * @param  lastModified  The time last modified in milliseconds since the Epoch
+   */
+  public FileAttributes(Type type, long size, long lastModified) {
+    this.type = type;
+    this.size = size;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Creates new attributes from Java attributes.
+   */
+  public FileAttributes(BasicFileAttributes attributes) {
+    this(
+        Type.valueOf(attributes),
+        attributes.size(),
+        attributes.lastModifiedTime().toMillis()
+    );
+  }
+
+  @Override
+  public String toString() {
+    return type + ", " + size + " bytes, modified " + lastModified;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public boolean isRegularFile() {
+    return type == Type.REGULAR_FILE;
+  }
+
+  public boolean isDirectory() {
+    return type == Type.DIRECTORY;
+  }
+
+  /**
+   * Gets the size in bytes.
+   *
+   * @see FileSystem#size(com.aoapps.io.filesystems.Path)
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the time last modified in milliseconds since the Epoch.
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Copies and moves files and entire trees between any two file systems.
+ *
+ * <p>When either side of a copy is a {@link FileChannel}, such as with {@link JavaFileSystem}
+ * and any wrapper that passes its channels through, the copy is performed with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} or
+ * {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)}, which
+ * the platform may perform in the kernel without passing through user space.  Otherwise, the
+ * copy passes through a direct buffer, reused from a pool shared by all copies of this copier.</p>
+ *
+ * <p>Trees are copied in parallel, using a {@link FileTreeWalker}.  Each directory is created
+ * before its children, and files are copied concurrently.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class FileCopier {
+
+  /**
+   * The default size of the direct buffers used when neither side is a {@link FileChannel}.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final FileTreeWalker walker;
+  private final int bufferSize;
+
+  /**
+   * Buffers not currently in use.  The pool grows to the number of concurrent copies.
+   */
+  private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Creates a copier that uses the given walker.
+   *
+   * @param  bufferSize  The size of the direct buffers used when neither side is a {@link FileChannel}
+   */
+  public FileCopier(FileTreeWalker walker, int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize < 1: " + bufferSize);
+    }
+    this.walker = walker;
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Creates a copier that uses the given walker and the {@linkplain #DEFAULT_BUFFER_SIZE default buffer size}.
+   */
+  public FileCopier(FileTreeWalker walker) {
+    this(walker, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a copier that uses a {@linkplain FileTreeWalker#FileTreeWalker() default walker}
+   * and the {@linkplain #DEFAULT_BUFFER_SIZE default buffer size}.
+   */
+  public FileCopier() {
+    this(new FileTreeWalker());
+  }
+
+  public FileTreeWalker getWalker() {
+    return walker;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Copies the contents of a regular file to a new file.
+   * The source and target may be from different file systems.
+   * When the copy fails after the target has been created, the partially written
+   * target is deleted.
+   *
+   * @param  target  Must not already exist
+   *
+   * @return  the number of bytes copied
+   *
+   * @throws NoSuchFileException if the source does not exist
+   * @throws FileAlreadyExistsException if the target already exists
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  public long copy(Path source, Path target) throws IOException {
+    FileSystem targetFileSystem = target.getFileSystem();
+    try (SeekableByteChannel in = source.getFileSystem().openRead(source)) {
+      SeekableByteChannel out = targetFileSystem.newByteChannel(
+          target,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE_NEW
+      );
+      // The target was created by this copy and may be deleted from here
+      try {
+        try (out) {
+          return transfer(in, out);
+        }
+      } catch (IOException | RuntimeException | Error e) {
+        try {
+          targetFileSystem.delete(target);
+        } catch (IOException | RuntimeException deleteFailure) {
+          e.addSuppressed(deleteFailure);
+        }
+        throw e;
+      }
+    }
+  }
+
+  private long transfer(SeekableByteChannel in, SeekableByteChannel out) throws IOException {
+    if (in instanceof FileChannel) {
+      return transferTo((FileChannel) in, out);
+    }
+    if (out instanceof FileChannel) {
+      return transferFrom(in, (FileChannel) out);
+    }
+    return copyBuffered(in, out);
+  }
+
+  private static long transferTo(FileChannel in, SeekableByteChannel out) throws IOException {
+    long size = in.size();
+    long position = 0;
+    while (position < size) {
+      long count = in.transferTo(position, size - position, out);
+      if (count <= 0) {
+        // Truncated concurrently
+        break;
+      }
+      position += count;
+    }
+    return position;
+  }
+
+  private static long transferFrom(SeekableByteChannel in, FileChannel out) throws IOException {
+    long size = in.size();
+    long position = 0;
+    while (position < size) {
+      long count = out.transferFrom(in, position, size - position);
+      if (count <= 0) {
+        // Truncated concurrently
+        break;
+      }
+      position += count;
+    }
+    return position;
+  }
+
+  private long copyBuffered(SeekableByteChannel in, SeekableByteChannel out) throws IOException {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+    try {
+      long total = 0;
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        total += count;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          out.write(buffer);
+        }
+        buffer.clear();
+      }
+      return total;
+    } finally {
+      buffer.clear();
+      buffers.add(buffer);
+    }
+  }
+
+  /**
+   * Recursively copies a file or directory, including all of its descendants, to a new location.
+   * The source and target may be from different file systems.
+   * Symbolic links and other special files are not copied, and stop the copy.
+   *
+   * <p>Stops at the first failure, leaving anything already copied in place.</p>
+   *
+   * <p>Each target path is built from the target of its parent directory, which is
+   * remembered until the directory has been copied, so the cost per entry does not
+   * grow with the depth of the tree.</p>
+   *
+   * @param  target  Must not already exist
+   *
+   * @throws NoSuchFileException if the source does not exist
+   * @throws FileAlreadyExistsException if the target already exists
+   * @throws UnsupportedOperationException if the source file system does not support attributes
+   * @throws IOException the first exception of the copy, with any others suppressed
+   *
+   * @see FileTreeWalker#walk(com.aoapps.io.filesystems.Path, com.aoapps.io.filesystems.FileTreeWalker.Visitor)
+   */
+  public void copyTree(Path source, Path target) throws IOException {
+    final FileSystem targetFileSystem = target.getFileSystem();
+    // The target of each directory being copied, by source directory
+    final Map<Path, Path> targetDirectories = new ConcurrentHashMap<>();
+    walker.walk(source, new FileTreeWalker.Visitor() {
+      private Path getTarget(Path path) {
+        if (path.equals(source)) {
+          return target;
+        }
+        return new Path(targetDirectories.get(path.getParent()), path.getName());
+      }
+
+      @Override
+      public boolean preVisitDirectory(DirectoryEntry directory) throws IOException {
+        Path dir = directory.getPath();
+        Path targetDir = getTarget(dir);
+        targetFileSystem.createDirectory(targetDir);
+        targetDirectories.put(dir, targetDir);
+        return true;
+      }
+
+      @Override
+      public void visitFile(DirectoryEntry file) throws IOException {
+        Path path = file.getPath();
+        if (!file.getAttributes().isRegularFile()) {
+          throw new FileSystemException(path.toString(), null, "Not a regular file or directory");
+        }
+        copy(path, getTarget(path));
+      }
+
+      @Override
+      public void postVisitDirectory(DirectoryEntry directory) {
+        targetDirectories.remove(directory.getPath());
+      }
+    });
+  }
+
+  /**
+   * Moves a file or directory, including all of its descendants, to a new location.
+   * The source and target may be from different file systems.
+   * The tree is first copied by {@link #copyTree(com.aoapps.io.filesystems.Path, com.aoapps.io.filesystems.Path)},
+   * then the source is deleted by a {@link TreeDeleter} sharing the same walker.
+   *
+   * <p>When the copy fails, the source is left in place.</p>
+   *
+   * @param  target  Must not already exist
+   *
+   * @throws NoSuchFileException if the source does not exist
+   * @throws FileAlreadyExistsException if the target already exists
+   * @throws UnsupportedOperationException if the source file system does not support attributes
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  public void moveTree(Path source, Path target) throws IOException {
+    copyTree(source, target);
+    new TreeDeleter(walker).deleteTree(source);
+  }
+}
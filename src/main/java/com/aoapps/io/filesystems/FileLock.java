@@ -42,6 +42,39 @@ public interface FileLock extends Closeable {
    */
   boolean isValid();
 
+  /**
+   * Gets the position of the first byte of the locked range.
+   *
+   * <p>This default implementation returns <code>0</code>, for a whole-file lock.</p>
+   *
+   * @see  java.nio.channels.FileLock#position()
+   */
+  default long position() {
+    return 0;
+  }
+
+  /**
+   * Gets the size of the locked range.
+   *
+   * <p>This default implementation returns {@link Long#MAX_VALUE}, for a whole-file lock.</p>
+   *
+   * @see  java.nio.channels.FileLock#size()
+   */
+  default long size() {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Checks if the lock is shared.
+   *
+   * <p>This default implementation returns <code>false</code>, for an exclusive lock.</p>
+   *
+   * @see  java.nio.channels.FileLock#isShared()
+   */
+  default boolean isShared() {
+    return false;
+  }
+
   /**
    * Unlocks a file.  Will usually be called in a try/finally or try-with-resources block.
    *
@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2015, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,10 +24,23 @@
 package com.aoapps.io.filesystems;
 
 import java.io.IOException;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.NotDirectoryException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The most basic layer of what all file systems have in common.
@@ -123,6 +136,80 @@ public interface FileSystem {
    */
   PathIterator list(Path path) throws IOException;
 
+  /**
+   * Lists the children of the given path in no specific order, along with their attributes.
+   * Symbolic links are not followed.
+   * As with {@link FileSystem#list(com.aoapps.io.filesystems.Path)}, it is possible that entries may be
+   * returned that no longer exist, and new file system objects created after the beginning of iteration
+   * might not be returned.
+   *
+   * <p>This default implementation calls {@link FileSystem#readAttributes(com.aoapps.io.filesystems.Path)}
+   * for each child of {@link FileSystem#list(com.aoapps.io.filesystems.Path)}, skipping any child that no longer
+   * exists.  Implementations should override this when attributes are available more efficiently during
+   * iteration.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @return a read-only iterator of children
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws NotDirectoryException if the path is not a directory
+   * @throws UnsupportedOperationException if attributes are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default DirectoryEntryIterator listEntries(Path path) throws IOException {
+    PathIterator iter = list(path);
+    return new DirectoryEntryIterator() {
+      private DirectoryEntry next;
+
+      @Override
+      public boolean hasNext() throws DirectoryIteratorException {
+        while (next == null && iter.hasNext()) {
+          Path child = iter.next();
+          try {
+            next = new DirectoryEntry(child, readAttributes(child));
+          } catch (NoSuchFileException e) {
+            // Removed since listed
+          } catch (IOException e) {
+            throw new DirectoryIteratorException(e);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public DirectoryEntry next() throws NoSuchElementException, DirectoryIteratorException {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        DirectoryEntry entry = next;
+        next = null;
+        return entry;
+      }
+
+      @Override
+      public void close() throws IOException {
+        iter.close();
+      }
+    };
+  }
+
+  /**
+   * Reads the attributes of the file system object at the given path.
+   * Symbolic links are not followed.
+   *
+   * <p>This default implementation throws {@link UnsupportedOperationException}.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws UnsupportedOperationException if attributes are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default FileAttributes readAttributes(Path path) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Deletes the file system object at the given path.
    *
@@ -134,6 +221,52 @@ public interface FileSystem {
    */
   void delete(Path path) throws IOException;
 
+  /**
+   * Recursively deletes the file system object at the given path, including all of its descendants.
+   * Symbolic links are deleted and not followed.
+   *
+   * <p>This default implementation deletes in parallel with a {@linkplain TreeDeleter#TreeDeleter() default deleter},
+   * in the {@linkplain FileTreeWalker#getDefaultPool() walkers' default pool} and not the common pool.
+   * Use {@link TreeDeleter} directly to control the pool, batch size, and fan-out.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws UnsupportedOperationException if attributes are not supported
+   * @throws IOException if any object could not be deleted.  Deletion continues past failures, which are
+   *                     reported together once the rest of the tree has been deleted.
+   *
+   * @see TreeDeleter#deleteTree(com.aoapps.io.filesystems.Path)
+   */
+  default void deleteTree(Path path) throws IOException {
+    new TreeDeleter().deleteTree(path);
+  }
+
+  /**
+   * Deletes the file system objects at each of the given paths, as if by
+   * {@link FileSystem#delete(com.aoapps.io.filesystems.Path)}.
+   * A failure on one path does not stop the others.
+   *
+   * <p>This default implementation calls {@link FileSystem#delete(com.aoapps.io.filesystems.Path)} for each path.
+   * Implementations should override this when a batch can be performed more efficiently.</p>
+   *
+   * @param  paths  Must all be from this file system.
+   *
+   * @return  the result of each path, in the iteration order of the given paths
+   */
+  default List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    List<BatchResult<Void>> results = new ArrayList<>(paths.size());
+    for (Path path : paths) {
+      try {
+        delete(path);
+        results.add(BatchResult.success(path, null));
+      } catch (IOException e) {
+        results.add(BatchResult.failure(path, e));
+      }
+    }
+    return results;
+  }
+
   /**
    * Gets the size of the file system object at the given path.
    *
@@ -144,6 +277,30 @@ public interface FileSystem {
    */
   long size(Path path) throws IOException;
 
+  /**
+   * Gets the sizes of the file system objects at each of the given paths, as if by
+   * {@link FileSystem#size(com.aoapps.io.filesystems.Path)}.
+   * A failure on one path does not stop the others.
+   *
+   * <p>This default implementation calls {@link FileSystem#size(com.aoapps.io.filesystems.Path)} for each path.
+   * Implementations should override this when a batch can be performed more efficiently.</p>
+   *
+   * @param  paths  Must all be from this file system.
+   *
+   * @return  the result of each path, in the iteration order of the given paths
+   */
+  default List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    List<BatchResult<Long>> results = new ArrayList<>(paths.size());
+    for (Path path : paths) {
+      try {
+        results.add(BatchResult.success(path, size(path)));
+      } catch (IOException e) {
+        results.add(BatchResult.failure(path, e));
+      }
+    }
+    return results;
+  }
+
   /**
    * Atomically creates an empty file (must not have already existed).
    *
@@ -155,6 +312,32 @@ public interface FileSystem {
    */
   Path createFile(Path path) throws IOException;
 
+  /**
+   * Atomically creates an empty file at each of the given paths, as if by
+   * {@link FileSystem#createFile(com.aoapps.io.filesystems.Path)}.
+   * A failure on one path does not stop the others.
+   *
+   * <p>This default implementation calls {@link FileSystem#createFile(com.aoapps.io.filesystems.Path)} for each path.
+   * Implementations should override this when a batch can be performed more efficiently.</p>
+   *
+   * @param  paths  Must all be from this file system.
+   *
+   * @return  the result of each path, in the iteration order of the given paths
+   *
+   * @throws UnsupportedOperationException if unable to create atomically
+   */
+  default List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    List<BatchResult<Path>> results = new ArrayList<>(paths.size());
+    for (Path path : paths) {
+      try {
+        results.add(BatchResult.success(path, createFile(path)));
+      } catch (IOException e) {
+        results.add(BatchResult.failure(path, e));
+      }
+    }
+    return results;
+  }
+
   /**
    * Atomically creates a directory (must not have already existed).
    *
@@ -166,9 +349,155 @@ public interface FileSystem {
    */
   Path createDirectory(Path path) throws IOException;
 
+  /**
+   * Creates a directory along with any missing parent directories.  Succeeds when the
+   * directory already exists.  Symbolic links are not followed, so an existing link
+   * is not accepted in place of a directory.
+   *
+   * <p>The directory itself is attempted first, so only a single call is made when the parent
+   * already exists.  Otherwise, parents are attempted upward only until one is created or found,
+   * then the remaining directories are created downward.  A directory created concurrently
+   * by another is accepted, and is not an error.</p>
+   *
+   * <p>This default implementation is performed in terms of
+   * {@link FileSystem#createDirectory(com.aoapps.io.filesystems.Path)}.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @return  returns the path
+   *
+   * @throws FileAlreadyExistsException if the path exists but is not a directory
+   * @throws IOException if an underlying I/O error occurs, including when a parent exists but is not a directory.
+   */
+  default Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    if (path.getParent() == null) {
+      // The root always exists
+      return path;
+    }
+    // Try the directory itself first
+    try {
+      createDirectory(path);
+      return path;
+    } catch (FileAlreadyExistsException e) {
+      checkDirectory(this, path, e);
+      return path;
+    } catch (NoSuchFileException e) {
+      // Back off upward
+    }
+    Path[] missing = new Path[path.getDepth()];
+    int count = 0;
+    missing[count++] = path;
+    Path p = path.getParent();
+    while (p.getParent() != null) {
+      try {
+        createDirectory(p);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        checkDirectory(this, p, e);
+        break;
+      } catch (NoSuchFileException e) {
+        missing[count++] = p;
+        p = p.getParent();
+      }
+    }
+    // Create downward
+    for (int i = count - 1; i >= 0; i--) {
+      Path dir = missing[i];
+      try {
+        createDirectory(dir);
+      } catch (FileAlreadyExistsException e) {
+        // Created concurrently
+        checkDirectory(this, dir, e);
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Checks that an existing path is a directory, for {@link FileSystem#createDirectories(com.aoapps.io.filesystems.Path)}.
+   *
+   * @throws FileAlreadyExistsException the given exception when not a directory
+   */
+  private static void checkDirectory(FileSystem fileSystem, Path path, FileAlreadyExistsException e) throws IOException {
+    boolean isDirectory;
+    try {
+      isDirectory = fileSystem.readAttributes(path).isDirectory();
+    } catch (UnsupportedOperationException unsupported) {
+      // Listing only succeeds on a directory
+      try {
+        fileSystem.list(path).close();
+        isDirectory = true;
+      } catch (NotDirectoryException notDirectory) {
+        isDirectory = false;
+      }
+    }
+    if (!isDirectory) {
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a channel to the contents of a regular file.  The options are interpreted as by
+   * {@link java.nio.file.Files#newByteChannel(java.nio.file.Path, java.nio.file.OpenOption...)},
+   * opening for reading when neither {@link StandardOpenOption#WRITE} nor
+   * {@link StandardOpenOption#APPEND} is given.
+   *
+   * <p>Implementations should return their most capable channel, such as a
+   * {@link java.nio.channels.FileChannel}, so callers may use any faster paths it offers.</p>
+   *
+   * <p>This default implementation throws {@link UnsupportedOperationException}.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @throws NoSuchFileException if the path does not exist and is not being created
+   * @throws FileAlreadyExistsException if {@link StandardOpenOption#CREATE_NEW} and the path already exists
+   * @throws UnsupportedOperationException if file contents or any of the options are not supported
+   * @throws IllegalArgumentException if an invalid combination of options is given
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Opens a channel for reading the contents of a regular file.
+   *
+   * <p>This default implementation calls {@link FileSystem#newByteChannel(com.aoapps.io.filesystems.Path, java.nio.file.OpenOption...)}
+   * with {@link StandardOpenOption#READ}.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws UnsupportedOperationException if file contents are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default SeekableByteChannel openRead(Path path) throws IOException {
+    return newByteChannel(path, StandardOpenOption.READ);
+  }
+
+  /**
+   * Opens a channel for writing the contents of a regular file, creating the file if it does
+   * not exist or truncating it if it does.
+   *
+   * <p>This default implementation calls {@link FileSystem#newByteChannel(com.aoapps.io.filesystems.Path, java.nio.file.OpenOption...)}
+   * with {@link StandardOpenOption#WRITE}, {@link StandardOpenOption#CREATE} and
+   * {@link StandardOpenOption#TRUNCATE_EXISTING}.</p>
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @throws NoSuchFileException if the parent does not exist
+   * @throws UnsupportedOperationException if file contents are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default SeekableByteChannel openWrite(Path path) throws IOException {
+    return newByteChannel(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
   /**
    * Locks a file in exclusive mode.
-   * File range and shared locks not currently supported.
    * The lock must be closed to unlock, usually in a try/finally or try-with-resources block.
    * The locks are not reentrant, attempting to obtain the lock from the same thread will result in deadlock.
    *
@@ -178,4 +507,183 @@ public interface FileSystem {
    * @see FileLock#close()
    */
   FileLock lock(Path path) throws IOException;
+
+  /**
+   * Locks a range of a file, in either shared or exclusive mode.
+   * Any number of shared locks may overlap, while an exclusive lock overlaps no other lock.
+   * A range that extends beyond the end of the file covers any later growth of the file,
+   * so a position of <code>0</code> and size of {@link Long#MAX_VALUE} locks the whole file.
+   * The lock must be closed to unlock, usually in a try/finally or try-with-resources block.
+   * The locks are not reentrant, attempting to obtain an overlapping lock from the same thread may result in deadlock.
+   *
+   * <p>This default implementation calls {@link FileSystem#lock(com.aoapps.io.filesystems.Path)} for an
+   * exclusive lock of the whole file, and throws {@link UnsupportedOperationException} otherwise.</p>
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws IllegalArgumentException if the position or size is negative
+   * @throws UnsupportedOperationException if shared or range locks are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   *
+   * @see java.nio.channels.FileChannel#lock(long, long, boolean)
+   */
+  default FileLock lock(Path path, long position, long size, boolean shared) throws IOException {
+    RangeLocks.checkRange(position, size);
+    if (position == 0 && size == Long.MAX_VALUE && !shared) {
+      return lock(path);
+    }
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Attempts to lock a range of a file without waiting.
+   *
+   * <p>This default implementation throws {@link UnsupportedOperationException}.</p>
+   *
+   * @return  the lock or {@code null} when an overlapping lock is held elsewhere
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws IllegalArgumentException if the position or size is negative
+   * @throws UnsupportedOperationException if non-blocking locks are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   *
+   * @see FileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)
+   * @see java.nio.channels.FileChannel#tryLock(long, long, boolean)
+   */
+  default FileLock tryLock(Path path, long position, long size, boolean shared) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Attempts to lock a file in exclusive mode without waiting.
+   *
+   * <p>This default implementation calls {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean)}
+   * for the whole file.</p>
+   *
+   * @return  the lock or {@code null} when the file is locked elsewhere
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws UnsupportedOperationException if non-blocking locks are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   */
+  default FileLock tryLock(Path path) throws IOException {
+    return tryLock(path, 0, Long.MAX_VALUE, false);
+  }
+
+  /**
+   * The shortest wait between attempts of {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean, long, java.util.concurrent.TimeUnit)}.
+   */
+  long TRY_LOCK_MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * The longest wait between attempts of {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean, long, java.util.concurrent.TimeUnit)}.
+   */
+  long TRY_LOCK_MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * Attempts to lock a range of a file, waiting up to the given time.
+   *
+   * <p>This default implementation repeatedly calls {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean)},
+   * doubling the wait between attempts up to {@link FileSystem#TRY_LOCK_MAX_BACKOFF_NANOS}.
+   * Implementations should override this when able to wait for a lock directly.</p>
+   *
+   * @return  the lock or {@code null} when not acquired within the timeout
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws IllegalArgumentException if the position or size is negative
+   * @throws FileLockInterruptionException if interrupted while waiting for the lock
+   * @throws UnsupportedOperationException if non-blocking locks are not supported
+   * @throws IOException if an underlying I/O error occurs.
+   *
+   * @see FileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)
+   */
+  default FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit) throws IOException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    long backoff = TRY_LOCK_MIN_BACKOFF_NANOS;
+    while (true) {
+      FileLock lock = tryLock(path, position, size, shared);
+      if (lock != null) {
+        return lock;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(Math.min(backoff, remaining));
+      } catch (InterruptedException e) {
+        // Restore the interrupted status
+        Thread.currentThread().interrupt();
+        throw new FileLockInterruptionException();
+      }
+      backoff = Math.min(backoff * 2, TRY_LOCK_MAX_BACKOFF_NANOS);
+    }
+  }
+
+  /**
+   * Locks a range of a file asynchronously, without any thread waiting for the lock.
+   * {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean)} is attempted
+   * immediately, then again on the given scheduler, doubling the wait between attempts up to
+   * {@link FileSystem#TRY_LOCK_MAX_BACKOFF_NANOS}.
+   *
+   * <p>Since no thread is blocked while the lock is held elsewhere, this is suited to virtual
+   * threads, which may wait on the returned future without pinning their carrier thread.
+   * A lock obtained after the future is cancelled is released immediately.</p>
+   *
+   * @param  scheduler  Runs each later attempt, which does not block.
+   *
+   * @return  a future that completes with the lock, or exceptionally with the first failure of
+   *          {@link FileSystem#tryLock(com.aoapps.io.filesystems.Path, long, long, boolean)}
+   *
+   * @throws IllegalArgumentException if the position or size is negative
+   *
+   * @see FileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)
+   */
+  default CompletableFuture<FileLock> lockAsync(Path path, long position, long size, boolean shared, ScheduledExecutorService scheduler) {
+    RangeLocks.checkRange(position, size);
+    CompletableFuture<FileLock> future = new CompletableFuture<>();
+    new Runnable() {
+      private long backoff = TRY_LOCK_MIN_BACKOFF_NANOS;
+
+      @Override
+      public void run() {
+        if (future.isDone()) {
+          return;
+        }
+        FileLock lock;
+        try {
+          lock = tryLock(path, position, size, shared);
+        } catch (Throwable t) {
+          future.completeExceptionally(t);
+          return;
+        }
+        if (lock == null) {
+          // Updated before scheduling, since the next attempt may run on another thread at once
+          long delay = backoff;
+          backoff = Math.min(backoff * 2, TRY_LOCK_MAX_BACKOFF_NANOS);
+          try {
+            scheduler.schedule(this, delay, TimeUnit.NANOSECONDS);
+          } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+          }
+        } else if (!future.complete(lock)) {
+          // Cancelled while locking, release it since no one else can
+          try {
+            lock.close();
+          } catch (IOException e) {
+            // Nothing to report to
+          }
+        }
+      }
+    }.run();
+    return future;
+  }
+
+  /**
+   * Locks a file in exclusive mode asynchronously, without any thread waiting for the lock.
+   *
+   * @see FileSystem#lockAsync(com.aoapps.io.filesystems.Path, long, long, boolean, java.util.concurrent.ScheduledExecutorService)
+   */
+  default CompletableFuture<FileLock> lockAsync(Path path, ScheduledExecutorService scheduler) {
+    return lockAsync(path, 0, Long.MAX_VALUE, false, scheduler);
+  }
 }
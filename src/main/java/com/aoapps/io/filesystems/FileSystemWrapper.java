@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2015, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,12 +24,29 @@
 package com.aoapps.io.filesystems;
 
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryIteratorException;
+import java.nio.file.OpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A file system that wraps another to intercept and otherwise modify interactions.
  *
+ * <p>Batch operations are passed to the wrapped file system as a whole.  Subclasses that
+ * intercept a single-path operation must also intercept its batch form, such as
+ * {@link FileSystemWrapper#deleteAll(java.util.Collection)} along with
+ * {@link FileSystemWrapper#delete(com.aoapps.io.filesystems.Path)}.</p>
+ *
+ * <p>{@link FileSystem#openRead(com.aoapps.io.filesystems.Path)} and {@link FileSystem#openWrite(com.aoapps.io.filesystems.Path)}
+ * are not passed to the wrapped file system, but are performed in terms of
+ * {@link FileSystemWrapper#newByteChannel(com.aoapps.io.filesystems.Path, java.nio.file.OpenOption...)}, so subclasses
+ * need only intercept the one method.</p>
+ *
  * @author  AO Industries, Inc.
  */
 public abstract class FileSystemWrapper implements FileSystem {
@@ -50,10 +67,16 @@ public abstract class FileSystemWrapper implements FileSystem {
 
     /**
      * Wraps a non-root.
+     * The name is only validated again when the wrapper has its own
+     * {@link FileSystemWrapper#checkSubPath(com.aoapps.io.filesystems.Path, java.lang.String)}.
      */
     private PathWrapper(PathWrapper parent, Path wrappedPath) {
-      super(parent, wrappedPath.getName());
-      assert parent.wrappedPath == wrappedPath.getParent();
+      super(parent, wrappedPath.getName(), true);
+      assert parent.wrappedPath.equals(wrappedPath.getParent());
+      FileSystemWrapper wrapper = (FileSystemWrapper) parent.getFileSystem();
+      if (!wrapper.inheritsCheckSubPath) {
+        wrapper.checkSubPath(parent, wrappedPath.getName());
+      }
       this.wrappedPath = wrappedPath;
     }
   }
@@ -65,30 +88,134 @@ public abstract class FileSystemWrapper implements FileSystem {
     return new PathWrapper(parent, subPath);
   }
 
+  /**
+   * The number of recently wrapped paths remembered by each wrapper.
+   */
+  private static final int WRAP_CACHE_SIZE = 1024;
+
+  /**
+   * Recently wrapped paths, direct-mapped by the hash of the wrapped path.
+   * Collisions simply replace the previous entry.
+   */
+  private final AtomicReferenceArray<PathWrapper> wrapCache = new AtomicReferenceArray<>(WRAP_CACHE_SIZE);
+
+  /**
+   * Finds a recently wrapped path.
+   *
+   * @return  the wrapper or {@code null} when not cached
+   */
+  private PathWrapper getCachedWrapper(Path path) {
+    PathWrapper cached = wrapCache.get(path.hashCode() & (WRAP_CACHE_SIZE - 1));
+    if (cached != null) {
+      Path cachedWrapped = cached.wrappedPath;
+      if (cachedWrapped == path || cachedWrapped.equals(path)) {
+        return cached;
+      }
+    }
+    return null;
+  }
+
+  private void putCachedWrapper(PathWrapper wrapper) {
+    wrapCache.lazySet(wrapper.wrappedPath.hashCode() & (WRAP_CACHE_SIZE - 1), wrapper);
+  }
+
   /**
    * Wraps a path.
+   *
+   * <p>Recently wrapped paths are remembered, so wrapping a path that was
+   * recently wrapped, or whose parent was recently wrapped, only creates at
+   * most one new wrapper.</p>
    */
   protected PathWrapper wrapPath(Path path) {
-    return
-        (path.getParent() == null)
-            ? new PathWrapper(this, path)
-            : wrapSubPath(wrapPath(path.getParent()), path);
+    PathWrapper cached = getCachedWrapper(path);
+    if (cached != null) {
+      return cached;
+    }
+    PathWrapper wrapper;
+    Path parent = path.getParent();
+    if (parent == null) {
+      wrapper = new PathWrapper(this, path);
+    } else {
+      PathWrapper parentWrapper = getCachedWrapper(parent);
+      if (parentWrapper != null) {
+        wrapper = wrapSubPath(parentWrapper, path);
+      } else {
+        // Collect the parents, since wrapping proceeds from the root
+        Path[] subPaths = new Path[path.getDepth()];
+        Path p = path;
+        for (int i = subPaths.length - 1; i >= 0; i--) {
+          subPaths[i] = p;
+          p = p.getParent();
+        }
+        wrapper = new PathWrapper(this, p);
+        putCachedWrapper(wrapper);
+        for (Path subPath : subPaths) {
+          wrapper = wrapSubPath(wrapper, subPath);
+          putCachedWrapper(wrapper);
+        }
+        return wrapper;
+      }
+    }
+    putCachedWrapper(wrapper);
+    return wrapper;
+  }
+
+  /**
+   * Gets the given path as a {@link PathWrapper}, wrapping it when it was not
+   * created by this wrapper, such as by {@link Path#Path(com.aoapps.io.filesystems.Path, java.lang.String)}.
+   */
+  protected PathWrapper getPathWrapper(Path path) {
+    return (path instanceof PathWrapper) ? (PathWrapper) path : wrapPath(unwrapPath(path));
   }
 
   /**
    * Unwraps a path.
+   *
+   * <p>Paths created directly, such as by {@link Path#Path(com.aoapps.io.filesystems.Path, java.lang.String)},
+   * are not {@link PathWrapper}.  These are unwrapped by creating the same
+   * names below their closest wrapped ancestor.</p>
    */
   protected Path unwrapPath(Path path) {
     assert path.getFileSystem() == this;
-    Path wrappedPath = ((PathWrapper) path).wrappedPath;
+    Path wrappedPath;
+    if (path instanceof PathWrapper) {
+      wrappedPath = ((PathWrapper) path).wrappedPath;
+    } else {
+      // Find the closest wrapped ancestor, which might not exist when created from a new root
+      int depth = path.getDepth();
+      Path ancestor = path.getParent();
+      while (ancestor != null && !(ancestor instanceof PathWrapper)) {
+        ancestor = ancestor.getParent();
+      }
+      wrappedPath = (ancestor == null) ? new Path(wrappedFileSystem) : ((PathWrapper) ancestor).wrappedPath;
+      // Names were already validated by checkSubPath
+      int ancestorDepth = (ancestor == null) ? 0 : ancestor.getDepth();
+      String[] names = path.explode();
+      for (int i = ancestorDepth; i < depth; i++) {
+        wrappedPath = new Path(wrappedPath, names[i], true);
+      }
+    }
     assert wrappedPath.getFileSystem() == wrappedFileSystem;
     return wrappedPath;
   }
 
   protected final FileSystem wrappedFileSystem;
 
+  /**
+   * When {@link FileSystemWrapper#checkSubPath(com.aoapps.io.filesystems.Path, java.lang.String)}
+   * is not overridden, any path of the wrapped file system is already valid for this wrapper.
+   */
+  private final boolean inheritsCheckSubPath;
+
   protected FileSystemWrapper(FileSystem wrappedFileSystem) {
     this.wrappedFileSystem = wrappedFileSystem;
+    try {
+      this.inheritsCheckSubPath =
+          getClass().getMethod("checkSubPath", Path.class, String.class).getDeclaringClass()
+              == FileSystemWrapper.class;
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
   }
 
   @Override
@@ -143,10 +270,60 @@ public abstract class FileSystemWrapper implements FileSystem {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    PathWrapper pathWrapper = (PathWrapper) path;
+    PathWrapper pathWrapper = getPathWrapper(path);
     return new PathIteratorWrapper(pathWrapper, wrappedFileSystem.list(pathWrapper.wrappedPath));
   }
 
+  /**
+   * Wraps {@link DirectoryEntryIterator}, wrapping the path of each result in {@link DirectoryEntryIteratorWrapper#next()}.
+   */
+  protected class DirectoryEntryIteratorWrapper extends DirectoryEntryIterator {
+
+    protected final PathWrapper parent;
+    protected final DirectoryEntryIterator wrappedIter;
+
+    protected DirectoryEntryIteratorWrapper(PathWrapper parent, DirectoryEntryIterator wrappedIter) {
+      this.parent = parent;
+      this.wrappedIter = wrappedIter;
+    }
+
+    @Override
+    public boolean hasNext() throws DirectoryIteratorException {
+      return wrappedIter.hasNext();
+    }
+
+    @Override
+    public DirectoryEntry next() throws NoSuchElementException {
+      DirectoryEntry wrappedEntry = wrappedIter.next();
+      return new DirectoryEntry(
+          wrapSubPath(parent, wrappedEntry.getPath()),
+          wrappedEntry.getAttributes()
+      );
+    }
+
+    @Override
+    public void close() throws IOException {
+      wrappedIter.close();
+    }
+  }
+
+  @Override
+  public DirectoryEntryIterator listEntries(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    PathWrapper pathWrapper = getPathWrapper(path);
+    return new DirectoryEntryIteratorWrapper(pathWrapper, wrappedFileSystem.listEntries(pathWrapper.wrappedPath));
+  }
+
+  @Override
+  public FileAttributes readAttributes(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.readAttributes(unwrapPath(path));
+  }
+
   @Override
   public void delete(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -155,6 +332,53 @@ public abstract class FileSystemWrapper implements FileSystem {
     wrappedFileSystem.delete(unwrapPath(path));
   }
 
+  /**
+   * Unwraps each of the given paths.
+   */
+  protected List<Path> unwrapPaths(Collection<? extends Path> paths) {
+    List<Path> unwrapped = new ArrayList<>(paths.size());
+    for (Path path : paths) {
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+      unwrapped.add(unwrapPath(path));
+    }
+    return unwrapped;
+  }
+
+  /**
+   * Replaces the paths of results from the wrapped file system with the corresponding given paths.
+   */
+  protected static <T> List<BatchResult<T>> rewrapResults(List<? extends Path> paths, List<BatchResult<T>> wrappedResults) {
+    int size = paths.size();
+    if (wrappedResults.size() != size) {
+      throw new AssertionError("Result count mismatch: " + wrappedResults.size() + " != " + size);
+    }
+    List<BatchResult<T>> results = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      BatchResult<T> wrappedResult = wrappedResults.get(i);
+      IOException failure = wrappedResult.getFailure();
+      if (failure == null) {
+        T value;
+        try {
+          value = wrappedResult.get();
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+        results.add(BatchResult.success(paths.get(i), value));
+      } else {
+        results.add(BatchResult.failure(paths.get(i), failure));
+      }
+    }
+    return results;
+  }
+
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    List<Path> unwrapped = unwrapPaths(paths);
+    return rewrapResults(new ArrayList<>(paths), wrappedFileSystem.deleteAll(unwrapped));
+  }
+
   @Override
   public long size(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -163,6 +387,12 @@ public abstract class FileSystemWrapper implements FileSystem {
     return wrappedFileSystem.size(unwrapPath(path));
   }
 
+  @Override
+  public List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    List<Path> unwrapped = unwrapPaths(paths);
+    return rewrapResults(new ArrayList<>(paths), wrappedFileSystem.sizeAll(unwrapped));
+  }
+
   @Override
   public Path createFile(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -172,6 +402,20 @@ public abstract class FileSystemWrapper implements FileSystem {
     return path;
   }
 
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    List<Path> unwrapped = unwrapPaths(paths);
+    List<Path> wrapped = new ArrayList<>(paths);
+    List<BatchResult<Path>> results = rewrapResults(wrapped, wrappedFileSystem.createFiles(unwrapped));
+    // Return the paths of this wrapper, not the wrapped file system
+    for (int i = 0, size = results.size(); i < size; i++) {
+      if (results.get(i).isSuccess()) {
+        results.set(i, BatchResult.success(wrapped.get(i), wrapped.get(i)));
+      }
+    }
+    return results;
+  }
+
   @Override
   public Path createDirectory(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -181,6 +425,29 @@ public abstract class FileSystemWrapper implements FileSystem {
     return path;
   }
 
+  @Override
+  public Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    wrappedFileSystem.createDirectories(unwrapPath(path));
+    return path;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The channel of the wrapped file system is returned as-is, so any faster paths it offers,
+   * such as those of {@link java.nio.channels.FileChannel}, remain available.</p>
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.newByteChannel(unwrapPath(path), options);
+  }
+
   @Override
   public FileLock lock(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -188,4 +455,36 @@ public abstract class FileSystemWrapper implements FileSystem {
     }
     return wrappedFileSystem.lock(unwrapPath(path));
   }
+
+  @Override
+  public FileLock lock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.lock(unwrapPath(path), position, size, shared);
+  }
+
+  @Override
+  public FileLock tryLock(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.tryLock(unwrapPath(path));
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.tryLock(unwrapPath(path), position, size, shared);
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return wrappedFileSystem.tryLock(unwrapPath(path), position, size, shared, timeout, unit);
+  }
 }
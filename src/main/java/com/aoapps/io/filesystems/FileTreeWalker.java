@@ -0,0 +1,398 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walks a file tree in parallel, with each directory listed in its own
+ * {@link ForkJoinPool} task.  Works with any file system that supports
+ * {@link FileSystem#listEntries(com.aoapps.io.filesystems.Path)}, including wrappers.
+ *
+ * <p>Symbolic links are never followed, since they are not reported as directories.</p>
+ *
+ * <p>The {@link Visitor} is called concurrently from multiple threads, for different
+ * directories, and must be thread-safe.  Within a single directory, its children
+ * are visited after {@link Visitor#preVisitDirectory(com.aoapps.io.filesystems.DirectoryEntry)}
+ * and before {@link Visitor#postVisitDirectory(com.aoapps.io.filesystems.DirectoryEntry)}.  Post-visit is
+ * called only once all descendants have been visited.</p>
+ *
+ * <p>The non-directory children of a single directory are visited in batches.  Each full batch
+ * is visited in its own task, so that very large directories are also processed in parallel,
+ * while the fan-out of any one directory remains bounded by its size divided by the batch size.</p>
+ *
+ * <p>Each directory has at most {@linkplain #getMaxForks() a fixed number} of subtasks outstanding.
+ * Once reached, the oldest subtask is joined before another is forked, which bounds the number of
+ * queued tasks, and their listings held in memory, for even the widest directories.</p>
+ *
+ * <p>The first exception stops the walk.  Tasks already running finish their
+ * current call, no new directories are started, and any additional exceptions
+ * are added as suppressed.</p>
+ *
+ * <p>File system calls block.  A dedicated pool, sized for the desired I/O
+ * parallelism, is preferred over the {@link ForkJoinPool#commonPool() common pool}.
+ * By default, walks share {@linkplain #getDefaultPool() a pool} used only for walking.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class FileTreeWalker {
+
+  /**
+   * No limit on depth.
+   */
+  public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+  /**
+   * Receives the entries of a walk.  All methods are called concurrently.
+   */
+  public static interface Visitor {
+
+    /**
+     * Called for a directory before its children.
+     *
+     * @return  {@code true} to visit the children, {@code false} to skip the directory,
+     *          in which case {@link Visitor#postVisitDirectory(com.aoapps.io.filesystems.DirectoryEntry)} is not called.
+     */
+    default boolean preVisitDirectory(DirectoryEntry directory) throws IOException {
+      return true;
+    }
+
+    /**
+     * Called for everything that is not a directory, and for directories at the maximum depth.
+     */
+    default void visitFile(DirectoryEntry file) throws IOException {
+      // Nothing by default
+    }
+
+    /**
+     * Called when a directory cannot be listed, or its listing fails part way through.
+     * When this returns normally, the walk continues and
+     * {@link Visitor#postVisitDirectory(com.aoapps.io.filesystems.DirectoryEntry)} is still called.
+     *
+     * <p>This default implementation rethrows the exception, which stops the walk.</p>
+     */
+    default void visitDirectoryFailed(DirectoryEntry directory, IOException e) throws IOException {
+      throw e;
+    }
+
+    /**
+     * Called for a directory after all of its descendants.
+     */
+    default void postVisitDirectory(DirectoryEntry directory) throws IOException {
+      // Nothing by default
+    }
+  }
+
+  /**
+   * The default number of non-directory children visited per task.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 256;
+
+  /**
+   * The default maximum number of subtasks outstanding per directory.
+   */
+  public static final int DEFAULT_MAX_FORKS = 64;
+
+  private static class DefaultPoolHolder {
+    /**
+     * Walks mostly wait on I/O, so the pool has more threads than processors.
+     */
+    private static final ForkJoinPool defaultPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors() * 2);
+  }
+
+  /**
+   * Gets the pool used by walkers created without a pool.  It is separate from the
+   * {@link ForkJoinPool#commonPool() common pool}, so blocking file system calls do
+   * not hold up unrelated tasks.  It is created on first use and has twice as many
+   * threads as there are processors.
+   */
+  public static ForkJoinPool getDefaultPool() {
+    return DefaultPoolHolder.defaultPool;
+  }
+
+  private final ForkJoinPool pool;
+  private final int batchSize;
+  private final int maxForks;
+
+  /**
+   * Creates a walker that runs in the given pool.
+   *
+   * @param  batchSize  The number of non-directory children visited per task.
+   *                    Use {@link Integer#MAX_VALUE} to visit all of a directory's
+   *                    children in the task that lists the directory.
+   * @param  maxForks   The maximum number of subtasks outstanding per directory.
+   */
+  public FileTreeWalker(ForkJoinPool pool, int batchSize, int maxForks) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize < 1: " + batchSize);
+    }
+    if (maxForks < 1) {
+      throw new IllegalArgumentException("maxForks < 1: " + maxForks);
+    }
+    this.pool = pool;
+    this.batchSize = batchSize;
+    this.maxForks = maxForks;
+  }
+
+  /**
+   * Creates a walker that runs in the given pool, using the {@linkplain #DEFAULT_MAX_FORKS default maximum forks}.
+   *
+   * @param  batchSize  The number of non-directory children visited per task.
+   *                    Use {@link Integer#MAX_VALUE} to visit all of a directory's
+   *                    children in the task that lists the directory.
+   */
+  public FileTreeWalker(ForkJoinPool pool, int batchSize) {
+    this(pool, batchSize, DEFAULT_MAX_FORKS);
+  }
+
+  /**
+   * Creates a walker that runs in the given pool, using the {@linkplain #DEFAULT_BATCH_SIZE default batch size}.
+   */
+  public FileTreeWalker(ForkJoinPool pool) {
+    this(pool, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a walker that runs in the {@linkplain #getDefaultPool() default pool},
+   * using the {@linkplain #DEFAULT_BATCH_SIZE default batch size}.
+   */
+  public FileTreeWalker() {
+    this(getDefaultPool());
+  }
+
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public int getMaxForks() {
+    return maxForks;
+  }
+
+  /**
+   * The state of a single walk.
+   */
+  private static final class Walk {
+    private final FileSystem fileSystem;
+    private final int maxDepth;
+    private final int batchSize;
+    private final int maxForks;
+    private final Visitor visitor;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private Walk(FileSystem fileSystem, int maxDepth, int batchSize, int maxForks, Visitor visitor) {
+      this.fileSystem = fileSystem;
+      this.maxDepth = maxDepth;
+      this.batchSize = batchSize;
+      this.maxForks = maxForks;
+      this.visitor = visitor;
+    }
+
+    private boolean isFailed() {
+      return failure.get() != null;
+    }
+
+    /**
+     * Records a failure, which is always an {@link IOException}, {@link RuntimeException}, or {@link Error}.
+     */
+    private void fail(Throwable t) {
+      if (t instanceof DirectoryIteratorException) {
+        t = t.getCause();
+      }
+      if (!failure.compareAndSet(null, t)) {
+        Throwable first = failure.get();
+        if (first != t) {
+          first.addSuppressed(t);
+        }
+      }
+    }
+  }
+
+  /**
+   * Visits a batch of non-directory entries.
+   */
+  private static final class BatchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Walk walk;
+    private final transient List<DirectoryEntry> batch;
+
+    private BatchTask(Walk walk, List<DirectoryEntry> batch) {
+      this.walk = walk;
+      this.batch = batch;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        visitAll(walk, batch);
+      } catch (IOException | RuntimeException | Error e) {
+        walk.fail(e);
+      }
+    }
+  }
+
+  private static void visitAll(Walk walk, List<DirectoryEntry> batch) throws IOException {
+    Visitor visitor = walk.visitor;
+    for (DirectoryEntry entry : batch) {
+      if (walk.isFailed()) {
+        return;
+      }
+      visitor.visitFile(entry);
+    }
+  }
+
+  /**
+   * Visits a directory and its descendants.
+   */
+  private static final class DirectoryTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Walk walk;
+    private final transient DirectoryEntry directory;
+    private final int depth;
+
+    private DirectoryTask(Walk walk, DirectoryEntry directory, int depth) {
+      this.walk = walk;
+      this.directory = directory;
+      this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+      if (walk.isFailed()) {
+        return;
+      }
+      Visitor visitor = walk.visitor;
+      final int batchSize = walk.batchSize;
+      final int maxForks = walk.maxForks;
+      Deque<ForkJoinTask<?>> subtasks = new ArrayDeque<>();
+      try {
+        if (!visitor.preVisitDirectory(directory)) {
+          return;
+        }
+        List<DirectoryEntry> batch = new ArrayList<>();
+        try (DirectoryEntryIterator iter = walk.fileSystem.listEntries(directory.getPath())) {
+          while (!walk.isFailed() && iter.hasNext()) {
+            DirectoryEntry entry = iter.next();
+            ForkJoinTask<?> subtask;
+            if (entry.getAttributes().isDirectory() && depth + 1 < walk.maxDepth) {
+              subtask = new DirectoryTask(walk, entry, depth + 1);
+            } else {
+              batch.add(entry);
+              if (batch.size() < batchSize) {
+                continue;
+              }
+              subtask = new BatchTask(walk, batch);
+              batch = new ArrayList<>();
+            }
+            // Bounded fan-out: wait for the oldest before forking more
+            if (subtasks.size() >= maxForks) {
+              subtasks.removeFirst().join();
+            }
+            subtasks.addLast(subtask.fork());
+          }
+        } catch (IOException | DirectoryIteratorException e) {
+          visitor.visitDirectoryFailed(
+              directory,
+              e instanceof DirectoryIteratorException ? ((DirectoryIteratorException) e).getCause() : (IOException) e
+          );
+        }
+        // The last, partial batch is visited directly
+        visitAll(walk, batch);
+        // Post-visit only after all descendants
+        while (!subtasks.isEmpty()) {
+          subtasks.removeLast().join();
+        }
+        if (!walk.isFailed()) {
+          visitor.postVisitDirectory(directory);
+        }
+      } catch (IOException | RuntimeException | Error e) {
+        walk.fail(e);
+      } finally {
+        // Never return while any descendant is still running
+        for (ForkJoinTask<?> subtask : subtasks) {
+          subtask.join();
+        }
+      }
+    }
+  }
+
+  /**
+   * Walks the tree starting at the given path.
+   * When the start is not a directory, or the maximum depth is zero, it is
+   * passed to {@link Visitor#visitFile(com.aoapps.io.filesystems.DirectoryEntry)}.
+   *
+   * @param  maxDepth  The maximum number of levels of directories to visit below the start.
+   *                   Directories at the maximum depth are not listed.
+   *
+   * @throws UnsupportedOperationException if the file system does not support attributes
+   * @throws IOException the first exception of the walk, with any others suppressed
+   */
+  public void walk(Path start, int maxDepth, Visitor visitor) throws IOException {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("maxDepth < 0: " + maxDepth);
+    }
+    FileSystem fileSystem = start.getFileSystem();
+    DirectoryEntry startEntry = new DirectoryEntry(start, fileSystem.readAttributes(start));
+    if (!startEntry.getAttributes().isDirectory() || maxDepth == 0) {
+      visitor.visitFile(startEntry);
+      return;
+    }
+    Walk walk = new Walk(fileSystem, maxDepth, batchSize, maxForks, visitor);
+    pool.invoke(new DirectoryTask(walk, startEntry, 0));
+    Throwable failure = walk.failure.get();
+    if (failure != null) {
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      throw (Error) failure;
+    }
+  }
+
+  /**
+   * Walks the entire tree starting at the given path.
+   *
+   * @see #walk(com.aoapps.io.filesystems.Path, int, com.aoapps.io.filesystems.FileTreeWalker.Visitor)
+   */
+  public void walk(Path start, Visitor visitor) throws IOException {
+    walk(start, UNLIMITED_DEPTH, visitor);
+  }
+}
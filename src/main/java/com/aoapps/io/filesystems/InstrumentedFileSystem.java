@@ -0,0 +1,530 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryIteratorException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import javax.management.JMException;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * A file system that records the counts, failures and latencies of operations on the
+ * wrapped file system, to find which layer of storage is slow without attaching a profiler.
+ *
+ * <p>Each {@link Operation} is recorded in its own {@link LatencyHistogram}, without locking.
+ * The snapshots may be read directly or through JMX, once {@linkplain #registerMBean(javax.management.ObjectName) registered}.</p>
+ *
+ * <p>Batch operations are recorded once per path, each with the mean latency of the batch.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InstrumentedFileSystem extends FileSystemWrapper {
+
+  /**
+   * The operations recorded.
+   */
+  public enum Operation {
+    /**
+     * Opening a directory by {@link FileSystem#list(com.aoapps.io.filesystems.Path)} or
+     * {@link FileSystem#listEntries(com.aoapps.io.filesystems.Path)}.
+     */
+    LIST,
+
+    /**
+     * Each {@code hasNext()} while iterating a directory, which is when the underlying
+     * file system reads ahead.
+     */
+    LIST_ITERATE,
+
+    /**
+     * {@link FileSystem#size(com.aoapps.io.filesystems.Path)} and
+     * {@link FileSystem#sizeAll(java.util.Collection)}.
+     */
+    SIZE,
+
+    /**
+     * {@link FileSystem#createFile(com.aoapps.io.filesystems.Path)} and
+     * {@link FileSystem#createFiles(java.util.Collection)}.
+     */
+    CREATE_FILE,
+
+    /**
+     * {@link FileSystem#createDirectory(com.aoapps.io.filesystems.Path)} and
+     * {@link FileSystem#createDirectories(com.aoapps.io.filesystems.Path)}.
+     */
+    CREATE_DIRECTORY,
+
+    /**
+     * {@link FileSystem#delete(com.aoapps.io.filesystems.Path)} and
+     * {@link FileSystem#deleteAll(java.util.Collection)}.
+     */
+    DELETE,
+
+    /**
+     * Acquiring, or trying to acquire, a lock.  A try that does not acquire the lock
+     * is not a failure.
+     */
+    LOCK,
+
+    /**
+     * The time a lock is held, from being acquired until closed.  Never a failure.
+     */
+    LOCK_HOLD
+  }
+
+  private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+
+  public InstrumentedFileSystem(FileSystem wrappedFileSystem) {
+    super(wrappedFileSystem);
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Gets the histogram of the given operation.
+   */
+  public LatencyHistogram getHistogram(Operation operation) {
+    return histograms[operation.ordinal()];
+  }
+
+  /**
+   * Gets the current counts of the given operation.
+   */
+  public LatencyHistogram.Snapshot getSnapshot(Operation operation) {
+    return getHistogram(operation).getSnapshot();
+  }
+
+  /**
+   * Resets the counts of all operations to zero.
+   */
+  public void reset() {
+    for (LatencyHistogram histogram : histograms) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Gets the management interface, for registering with any {@link javax.management.MBeanServer}.
+   */
+  public InstrumentedFileSystemMXBean getMXBean() {
+    return new InstrumentedFileSystemMXBean() {
+      @Override
+      public LatencyHistogram.Snapshot getList() {
+        return getSnapshot(Operation.LIST);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getListIterate() {
+        return getSnapshot(Operation.LIST_ITERATE);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getSize() {
+        return getSnapshot(Operation.SIZE);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getCreateFile() {
+        return getSnapshot(Operation.CREATE_FILE);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getCreateDirectory() {
+        return getSnapshot(Operation.CREATE_DIRECTORY);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getDelete() {
+        return getSnapshot(Operation.DELETE);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getLock() {
+        return getSnapshot(Operation.LOCK);
+      }
+
+      @Override
+      public LatencyHistogram.Snapshot getLockHold() {
+        return getSnapshot(Operation.LOCK_HOLD);
+      }
+
+      @Override
+      public void reset() {
+        InstrumentedFileSystem.this.reset();
+      }
+    };
+  }
+
+  /**
+   * Registers the {@linkplain #getMXBean() management interface} with the platform {@link javax.management.MBeanServer}.
+   *
+   * @see  ManagementFactory#getPlatformMBeanServer()
+   */
+  public ObjectInstance registerMBean(ObjectName name) throws JMException {
+    return ManagementFactory.getPlatformMBeanServer().registerMBean(
+        new StandardMBean(getMXBean(), InstrumentedFileSystemMXBean.class, true),
+        name
+    );
+  }
+
+  private void record(Operation operation, long startNanos, boolean failed) {
+    histograms[operation.ordinal()].record(System.nanoTime() - startNanos, failed);
+  }
+
+  /**
+   * Records each result of a batch with the mean latency of the batch.
+   */
+  private <T> List<BatchResult<T>> recordAll(Operation operation, long startNanos, List<BatchResult<T>> results) {
+    int size = results.size();
+    if (size > 0) {
+      long meanNanos = (System.nanoTime() - startNanos) / size;
+      LatencyHistogram histogram = histograms[operation.ordinal()];
+      for (BatchResult<T> result : results) {
+        histogram.record(meanNanos, !result.isSuccess());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Records each {@code hasNext()} of a directory iteration.
+   */
+  private boolean recordHasNext(BooleanSupplier hasNext) {
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      boolean result = hasNext.getAsBoolean();
+      failed = false;
+      return result;
+    } finally {
+      record(Operation.LIST_ITERATE, startNanos, failed);
+    }
+  }
+
+  @Override
+  public PathIterator list(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    PathWrapper pathWrapper = getPathWrapper(path);
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    PathIterator wrappedIter;
+    try {
+      wrappedIter = wrappedFileSystem.list(pathWrapper.wrappedPath);
+      failed = false;
+    } finally {
+      record(Operation.LIST, startNanos, failed);
+    }
+    return new PathIteratorWrapper(pathWrapper, wrappedIter) {
+      @Override
+      public boolean hasNext() throws DirectoryIteratorException {
+        return recordHasNext(super::hasNext);
+      }
+    };
+  }
+
+  @Override
+  public DirectoryEntryIterator listEntries(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    PathWrapper pathWrapper = getPathWrapper(path);
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    DirectoryEntryIterator wrappedIter;
+    try {
+      wrappedIter = wrappedFileSystem.listEntries(pathWrapper.wrappedPath);
+      failed = false;
+    } finally {
+      record(Operation.LIST, startNanos, failed);
+    }
+    return new DirectoryEntryIteratorWrapper(pathWrapper, wrappedIter) {
+      @Override
+      public boolean hasNext() throws DirectoryIteratorException {
+        return recordHasNext(super::hasNext);
+      }
+    };
+  }
+
+  @Override
+  public void delete(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.delete(path);
+      failed = false;
+    } finally {
+      record(Operation.DELETE, startNanos, failed);
+    }
+  }
+
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    long startNanos = System.nanoTime();
+    return recordAll(Operation.DELETE, startNanos, super.deleteAll(paths));
+  }
+
+  @Override
+  public long size(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      long size = super.size(path);
+      failed = false;
+      return size;
+    } finally {
+      record(Operation.SIZE, startNanos, failed);
+    }
+  }
+
+  @Override
+  public List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    long startNanos = System.nanoTime();
+    return recordAll(Operation.SIZE, startNanos, super.sizeAll(paths));
+  }
+
+  @Override
+  public Path createFile(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      Path created = super.createFile(path);
+      failed = false;
+      return created;
+    } finally {
+      record(Operation.CREATE_FILE, startNanos, failed);
+    }
+  }
+
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    long startNanos = System.nanoTime();
+    return recordAll(Operation.CREATE_FILE, startNanos, super.createFiles(paths));
+  }
+
+  @Override
+  public Path createDirectory(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      Path created = super.createDirectory(path);
+      failed = false;
+      return created;
+    } finally {
+      record(Operation.CREATE_DIRECTORY, startNanos, failed);
+    }
+  }
+
+  @Override
+  public Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      Path created = super.createDirectories(path);
+      failed = false;
+      return created;
+    } finally {
+      record(Operation.CREATE_DIRECTORY, startNanos, failed);
+    }
+  }
+
+  /**
+   * A lock of the wrapped file system, recording the time held when closed.
+   */
+  private final class InstrumentedLock implements FileLock {
+
+    private final FileLock wrappedLock;
+    private final long acquiredNanos;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private InstrumentedLock(FileLock wrappedLock, long acquiredNanos) {
+      this.wrappedLock = wrappedLock;
+      this.acquiredNanos = acquiredNanos;
+    }
+
+    @Override
+    public boolean isValid() {
+      return wrappedLock.isValid();
+    }
+
+    @Override
+    public long position() {
+      return wrappedLock.position();
+    }
+
+    @Override
+    public long size() {
+      return wrappedLock.size();
+    }
+
+    @Override
+    public boolean isShared() {
+      return wrappedLock.isShared();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        wrappedLock.close();
+      } finally {
+        if (closed.compareAndSet(false, true)) {
+          record(Operation.LOCK_HOLD, acquiredNanos, false);
+        }
+      }
+    }
+  }
+
+  /**
+   * An attempt to acquire a lock from the wrapped file system.
+   */
+  @FunctionalInterface
+  private static interface LockAttempt {
+    FileLock lock() throws IOException;
+  }
+
+  /**
+   * Records an attempt to acquire a lock, instrumenting the lock when acquired.
+   */
+  private FileLock recordLock(LockAttempt attempt) throws IOException {
+    long startNanos = System.nanoTime();
+    boolean failed = true;
+    try {
+      FileLock lock = attempt.lock();
+      failed = false;
+      return (lock == null) ? null : new InstrumentedLock(lock, System.nanoTime());
+    } finally {
+      record(Operation.LOCK, startNanos, failed);
+    }
+  }
+
+  @Override
+  public FileLock lock(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return recordLock(() -> super.lock(path));
+  }
+
+  @Override
+  public FileLock lock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return recordLock(() -> super.lock(path, position, size, shared));
+  }
+
+  @Override
+  public FileLock tryLock(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return recordLock(() -> super.tryLock(path));
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return recordLock(() -> super.tryLock(path, position, size, shared));
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return recordLock(() -> super.tryLock(path, position, size, shared, timeout, unit));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Performed by the wrapped file system, so each request is recorded once, from being
+   * submitted until completed, instead of once for each attempt.  A cancelled request is
+   * not a failure.</p>
+   */
+  @Override
+  public CompletableFuture<FileLock> lockAsync(
+      Path path,
+      long position,
+      long size,
+      boolean shared,
+      ScheduledExecutorService scheduler
+  ) {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    long startNanos = System.nanoTime();
+    CompletableFuture<FileLock> wrappedFuture = wrappedFileSystem.lockAsync(unwrapPath(path), position, size, shared, scheduler);
+    CompletableFuture<FileLock> future = new CompletableFuture<>();
+    wrappedFuture.whenComplete((wrappedLock, t) -> {
+      record(Operation.LOCK, startNanos, t != null && !(t instanceof CancellationException));
+      if (t != null) {
+        future.completeExceptionally(t);
+      } else if (!future.complete(new InstrumentedLock(wrappedLock, System.nanoTime()))) {
+        // Cancelled while locking, release it since no one else can
+        try {
+          wrappedLock.close();
+        } catch (IOException e) {
+          // Nothing to report to
+        }
+      }
+    });
+    future.whenComplete((lock, t) -> {
+      if (future.isCancelled()) {
+        wrappedFuture.cancel(false);
+      }
+    });
+    return future;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+/**
+ * The management interface of {@link InstrumentedFileSystem}, exposing a snapshot of each
+ * operation as an attribute.  Register with
+ * {@link InstrumentedFileSystem#registerMBean(javax.management.ObjectName)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public interface InstrumentedFileSystemMXBean {
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#LIST
+   */
+  LatencyHistogram.Snapshot getList();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#LIST_ITERATE
+   */
+  LatencyHistogram.Snapshot getListIterate();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#SIZE
+   */
+  LatencyHistogram.Snapshot getSize();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#CREATE_FILE
+   */
+  LatencyHistogram.Snapshot getCreateFile();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#CREATE_DIRECTORY
+   */
+  LatencyHistogram.Snapshot getCreateDirectory();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#DELETE
+   */
+  LatencyHistogram.Snapshot getDelete();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#LOCK
+   */
+  LatencyHistogram.Snapshot getLock();
+
+  /**
+   * @see  InstrumentedFileSystem.Operation#LOCK_HOLD
+   */
+  LatencyHistogram.Snapshot getLockHold();
+
+  /**
+   * Resets all counts to zero.
+   */
+  void reset();
+}
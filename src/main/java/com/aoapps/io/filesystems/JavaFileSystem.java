@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2015, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,14 +25,33 @@ package com.aoapps.io.filesystems;
 
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.SecureDirectoryStream;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Wraps any standard FileSystem implementation.
@@ -54,6 +73,11 @@ public class JavaFileSystem implements FileSystem {
    */
   public static final int MAX_PATH_NAME_LENGTH = 255;
 
+  /**
+   * The locks of all instances, since operating system locks are held by the whole JVM.
+   */
+  private static final LockTable lockTable = new LockTable();
+
   private static final JavaFileSystem defaultInstance = new JavaFileSystem(FileSystems.getDefault());
 
   /**
@@ -64,14 +88,85 @@ public class JavaFileSystem implements FileSystem {
     return defaultInstance;
   }
 
+  /**
+   * The number of recently resolved paths remembered by {@link #getJavaPath(com.aoapps.io.filesystems.Path)}.
+   */
+  private static final int JAVA_PATH_CACHE_SIZE = 4096;
+
   protected final java.nio.file.FileSystem javaFileSystem;
   protected final boolean isSingleRoot;
 
   /**
-   * Creates a new Java filesystem.
+   * The separator of the underlying file system.
+   */
+  private final String javaSeparator;
+
+  /**
+   * The roots of a multi-root file system, by name without trailing separator.
+   * Replaced when a root is not found, since roots may come and go.
+   */
+  private volatile Map<String, java.nio.file.Path> rootsByName;
+
+  /**
+   * A recently resolved path.
+   */
+  private static final class JavaPathEntry {
+    private final Path path;
+    private final java.nio.file.Path javaPath;
+
+    private JavaPathEntry(Path path, java.nio.file.Path javaPath) {
+      this.path = path;
+      this.javaPath = javaPath;
+    }
+  }
+
+  /**
+   * Recently resolved paths, direct-mapped by the hash of the path.
+   * Collisions simply replace the previous entry.
+   */
+  private final AtomicReferenceArray<JavaPathEntry> javaPathCache = new AtomicReferenceArray<>(JAVA_PATH_CACHE_SIZE);
+
+  /**
+   * The cache of open channels or {@code null} when disabled.
+   */
+  private final ChannelCache channelCache;
+
+  /**
+   * Set once a directory stream has been found to not be a {@link SecureDirectoryStream},
+   * after which batches no longer open directories that they cannot use.
+   */
+  private volatile boolean secureDirectoryStreamUnsupported;
+
+  /**
+   * Creates a new Java filesystem, without caching open channels.
    */
   public JavaFileSystem(java.nio.file.FileSystem javaFileSystem) {
+    this(javaFileSystem, 0);
+  }
+
+  /**
+   * Creates a new Java filesystem, optionally caching open channels.
+   *
+   * <p>When enabled, the channels used for locks, and channels opened only for reading, are
+   * kept open in a bounded cache and shared between users.  This avoids opening the same files
+   * repeatedly, such as small files that are frequently locked and read.  Once more than the
+   * maximum channels are open, the least recently used channels that are not in use are closed.</p>
+   *
+   * <p>The channels of a file are removed from the cache when it is deleted through this
+   * file system.  A file replaced by other means, such as by another process, may continue
+   * to be read from the channel of the file it replaced until the channel is evicted or
+   * {@linkplain #invalidateChannels() invalidated}.</p>
+   *
+   * @param  maxCachedChannels  The maximum number of channels kept open while not in use,
+   *                            or {@code 0} to not cache channels
+   */
+  public JavaFileSystem(java.nio.file.FileSystem javaFileSystem, int maxCachedChannels) {
+    if (maxCachedChannels < 0) {
+      throw new IllegalArgumentException("maxCachedChannels < 0: " + maxCachedChannels);
+    }
+    this.channelCache = (maxCachedChannels == 0) ? null : new ChannelCache(maxCachedChannels, lockTable);
     this.javaFileSystem = javaFileSystem;
+    this.javaSeparator = javaFileSystem.getSeparator();
     Iterator<java.nio.file.Path> roots = javaFileSystem.getRootDirectories().iterator();
     if (!roots.hasNext()) {
       throw new AssertionError("No root");
@@ -82,8 +177,24 @@ public class JavaFileSystem implements FileSystem {
       isSingleRoot = false;
     } else {
       // Root must simply be the separator (Not something like C:\)
-      isSingleRoot = javaFileSystem.getSeparator().equals(root.toString());
+      isSingleRoot = javaSeparator.equals(root.toString());
     }
+    rootsByName = isSingleRoot ? Collections.emptyMap() : mapRoots();
+  }
+
+  /**
+   * Maps the current roots by their name without trailing separator.
+   */
+  private Map<String, java.nio.file.Path> mapRoots() {
+    Map<String, java.nio.file.Path> map = new HashMap<>();
+    for (java.nio.file.Path root : javaFileSystem.getRootDirectories()) {
+      String rootStr = root.toString();
+      if (rootStr.endsWith(javaSeparator)) {
+        rootStr = rootStr.substring(0, rootStr.length() - javaSeparator.length());
+      }
+      map.put(rootStr, root);
+    }
+    return Collections.unmodifiableMap(map);
   }
 
   /**
@@ -113,8 +224,8 @@ public class JavaFileSystem implements FileSystem {
       throw new InvalidPathException("Path name must not contain the NULL character: " + name);
     }
     // Path.SEPARATOR already checked in the Path constructor
-    String javaSep = javaFileSystem.getSeparator();
-    if (javaSep.length() != 1 && javaSep.charAt(0) != Path.SEPARATOR) {
+    String javaSep = javaSeparator;
+    if (javaSep.length() != 1 || javaSep.charAt(0) != Path.SEPARATOR) {
       // Must not contain the current platform separator character
       if (name.contains(javaSep)) {
         throw new InvalidPathException("Path name must not contain the '" + javaSep + "' separator: " + name);
@@ -133,32 +244,67 @@ public class JavaFileSystem implements FileSystem {
     }
   }
 
+  /**
+   * Finds a recently resolved path.
+   *
+   * @return  the resolved path or {@code null} when not cached
+   */
+  private java.nio.file.Path getCachedJavaPath(Path path) {
+    JavaPathEntry entry = javaPathCache.get(path.hashCode() & (JAVA_PATH_CACHE_SIZE - 1));
+    if (entry != null) {
+      Path cachedPath = entry.path;
+      if (cachedPath == path || cachedPath.equals(path)) {
+        return entry.javaPath;
+      }
+    }
+    return null;
+  }
+
   /**
    * Gets a Java File for the given path.
    *
+   * <p>Recently resolved paths are remembered, and a path whose parent was
+   * recently resolved is resolved directly against the parent.</p>
+   *
    * @throws InvalidPathException If the path is not acceptable
    */
   protected java.nio.file.Path getJavaPath(Path path) throws IOException {
     assert path.getFileSystem() == this;
-    if (isSingleRoot) {
-      return javaFileSystem.getPath(javaFileSystem.getSeparator(), path.explode());
-    } else {
-      String[] exploded = path.explode();
-      if (exploded.length == 0) {
-        throw new IOException("Cannot map fake root into non-Unix environment");
-      }
-      String expectedRoot = exploded[0] + javaFileSystem.getSeparator();
-      for (java.nio.file.Path root : javaFileSystem.getRootDirectories()) {
-        String rootStr = root.toString();
-        if (rootStr.equals(exploded[0])) {
-          return javaFileSystem.getPath(
-              rootStr,
-              Arrays.copyOfRange(exploded, 1, exploded.length)
-          );
+    java.nio.file.Path javaPath = getCachedJavaPath(path);
+    if (javaPath == null) {
+      Path parent = path.getParent();
+      java.nio.file.Path javaParent;
+      if (
+          parent != null
+              && (isSingleRoot || parent.getParent() != null)
+              && (javaParent = getCachedJavaPath(parent)) != null
+      ) {
+        javaPath = javaParent.resolve(path.getName());
+      } else if (isSingleRoot) {
+        javaPath = javaFileSystem.getPath(javaSeparator, path.explode());
+      } else {
+        String[] exploded = path.explode();
+        if (exploded.length == 0) {
+          throw new IOException("Cannot map fake root into non-Unix environment");
+        }
+        java.nio.file.Path root = rootsByName.get(exploded[0]);
+        if (root == null) {
+          // Roots may have been added since last mapped
+          Map<String, java.nio.file.Path> newRoots = mapRoots();
+          rootsByName = newRoots;
+          root = newRoots.get(exploded[0]);
+          if (root == null) {
+            throw new NoSuchFileException(exploded[0] + javaSeparator);
+          }
         }
+        javaPath = javaFileSystem.getPath(
+            root.toString(),
+            Arrays.copyOfRange(exploded, 1, exploded.length)
+        );
       }
-      throw new NoSuchFileException(expectedRoot);
+      javaPathCache.lazySet(path.hashCode() & (JAVA_PATH_CACHE_SIZE - 1), new JavaPathEntry(path, javaPath));
     }
+    return javaPath;
   }
 
   @Override
@@ -177,6 +323,7 @@ public class JavaFileSystem implements FileSystem {
 
         @Override
         public Path next() throws NoSuchElementException {
+          // Validated, since the underlying file system allows names not allowed here, such as "..."
           return new Path(path, iter.next().getFileName().toString());
         }
 
@@ -187,7 +334,6 @@ public class JavaFileSystem implements FileSystem {
       };
     } else {
       // List roots and strip their trailing separator
-      String javaSeparator = javaFileSystem.getSeparator();
       Iterator<java.nio.file.Path> rootIter = javaFileSystem.getRootDirectories().iterator();
       return new PathIterator() {
         @Override
@@ -212,12 +358,283 @@ public class JavaFileSystem implements FileSystem {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Attributes are read during iteration, relative to the open directory
+   * when the platform supports {@link SecureDirectoryStream}.  Symbolic links
+   * are not followed.</p>
+   */
+  @Override
+  public DirectoryEntryIterator listEntries(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    if (!isSingleRoot && path.getParent() == null) {
+      return FileSystem.super.listEntries(path);
+    }
+    DirectoryStream<java.nio.file.Path> stream = Files.newDirectoryStream(getJavaPath(path));
+    SecureDirectoryStream<java.nio.file.Path> secureStream =
+        (stream instanceof SecureDirectoryStream) ? (SecureDirectoryStream<java.nio.file.Path>) stream : null;
+    Iterator<java.nio.file.Path> iter = stream.iterator();
+    return new DirectoryEntryIterator() {
+      private DirectoryEntry next;
+
+      @Override
+      public boolean hasNext() throws DirectoryIteratorException {
+        while (next == null && iter.hasNext()) {
+          java.nio.file.Path javaChild = iter.next();
+          java.nio.file.Path fileName = javaChild.getFileName();
+          BasicFileAttributes attributes;
+          try {
+            if (secureStream != null) {
+              attributes = secureStream.getFileAttributeView(fileName, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                  .readAttributes();
+            } else {
+              attributes = Files.readAttributes(javaChild, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            }
+          } catch (NoSuchFileException e) {
+            // Removed since listed
+            continue;
+          } catch (IOException e) {
+            throw new DirectoryIteratorException(e);
+          }
+          // Validated, since the underlying file system allows names not allowed here, such as "..."
+          next = new DirectoryEntry(new Path(path, fileName.toString()), new FileAttributes(attributes));
+        }
+        return next != null;
+      }
+
+      @Override
+      public DirectoryEntry next() throws NoSuchElementException, DirectoryIteratorException {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        DirectoryEntry entry = next;
+        next = null;
+        return entry;
+      }
+
+      @Override
+      public void close() throws IOException {
+        stream.close();
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Symbolic links are not followed, so a link is never mistaken for the
+   * directory it points to.  The fake root of a multi-root file system is a
+   * directory of zero size.</p>
+   */
+  @Override
+  public FileAttributes readAttributes(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    if (!isSingleRoot && path.getParent() == null) {
+      return new FileAttributes(FileAttributes.Type.DIRECTORY, 0, 0);
+    }
+    return new FileAttributes(Files.readAttributes(getJavaPath(path), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+  }
+
+  /**
+   * The options used to create a new, empty file, matching {@link Files#createFile(java.nio.file.Path, java.nio.file.attribute.FileAttribute...)}.
+   */
+  private static final Set<StandardOpenOption> CREATE_FILE_OPTIONS =
+      Collections.unmodifiableSet(EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+
+  /**
+   * An operation on a single path.
+   */
+  @FunctionalInterface
+  private static interface PathOperation<T> {
+    T apply(Path path) throws IOException;
+  }
+
+  /**
+   * An operation on a name relative to an open directory.
+   */
+  @FunctionalInterface
+  private static interface RelativeOperation<T> {
+    T apply(SecureDirectoryStream<java.nio.file.Path> directory, java.nio.file.Path name, Path path) throws IOException;
+  }
+
+  /**
+   * Performs a batch operation, grouped by parent directory.  When the platform supports
+   * {@link SecureDirectoryStream}, each directory with more than one path in the batch
+   * is opened once and its paths are operated on relative to the open directory.
+   * Otherwise, each path is operated on individually, and once any directory stream has been
+   * found to not be secure, directories are no longer opened.
+   */
+  private <T> List<BatchResult<T>> batch(
+      Collection<? extends Path> paths,
+      PathOperation<T> pathOperation,
+      RelativeOperation<T> relativeOperation
+  ) {
+    Path[] array = paths.toArray(new Path[paths.size()]);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchResult<T>[] results = new BatchResult[array.length];
+    // Group by parent, preserving the order of first appearance
+    Map<Path, List<Integer>> byParent = new LinkedHashMap<>();
+    for (int i = 0; i < array.length; i++) {
+      Path path = array[i];
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+      Path parent = path.getParent();
+      if (parent == null || (!isSingleRoot && parent.getParent() == null)) {
+        results[i] = perform(path, pathOperation);
+      } else {
+        byParent.computeIfAbsent(parent, p -> new ArrayList<>()).add(i);
+      }
+    }
+    for (Map.Entry<Path, List<Integer>> group : byParent.entrySet()) {
+      List<Integer> indexes = group.getValue();
+      SecureDirectoryStream<java.nio.file.Path> secureStream = null;
+      DirectoryStream<java.nio.file.Path> stream = null;
+      if (indexes.size() > 1 && !secureDirectoryStreamUnsupported) {
+        try {
+          stream = Files.newDirectoryStream(getJavaPath(group.getKey()));
+          if (stream instanceof SecureDirectoryStream) {
+            secureStream = (SecureDirectoryStream<java.nio.file.Path>) stream;
+          } else {
+            secureDirectoryStreamUnsupported = true;
+          }
+        } catch (IOException e) {
+          // Performed individually, so each reports its own failure
+        }
+      }
+      try {
+        for (int i : indexes) {
+          Path path = array[i];
+          if (secureStream == null) {
+            results[i] = perform(path, pathOperation);
+          } else {
+            try {
+              results[i] = BatchResult.success(path, relativeOperation.apply(secureStream, javaFileSystem.getPath(path.getName()), path));
+            } catch (IOException e) {
+              results[i] = BatchResult.failure(path, e);
+            }
+          }
+        }
+      } finally {
+        if (stream != null) {
+          try {
+            stream.close();
+          } catch (IOException e) {
+            // Every result has already been determined
+          }
+        }
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  private static <T> BatchResult<T> perform(Path path, PathOperation<T> operation) {
+    try {
+      return BatchResult.success(path, operation.apply(path));
+    } catch (IOException e) {
+      return BatchResult.failure(path, e);
+    }
+  }
+
+  /**
+   * Gets the maximum number of channels kept open while not in use.
+   *
+   * @return  the maximum or {@code 0} when channels are not cached
+   */
+  public int getMaxCachedChannels() {
+    return (channelCache == null) ? 0 : channelCache.getMaxOpen();
+  }
+
+  /**
+   * Removes all channels from the cache, such as after files have been replaced by other means.
+   * Channels are closed once no longer in use.
+   */
+  public void invalidateChannels() {
+    if (channelCache != null) {
+      channelCache.invalidateAll();
+    }
+  }
+
   @Override
   public void delete(Path path) throws IOException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    Files.delete(getJavaPath(path));
+    java.nio.file.Path javaPath = getJavaPath(path);
+    java.nio.file.Path realPath = (channelCache == null) ? null : getRealParentPath(javaPath);
+    Files.delete(javaPath);
+    if (channelCache != null) {
+      invalidateChannels(javaPath, realPath);
+    }
+  }
+
+  /**
+   * Gets a path with its parent directory resolved to its real path.  This is the key of the
+   * file in the {@link LockTable}, unless the file itself is a symbolic link.  Resolved before
+   * deleting, since it cannot be resolved after.
+   *
+   * @return  the path or {@code null} when the parent cannot be resolved
+   */
+  private static java.nio.file.Path getRealParentPath(java.nio.file.Path javaPath) {
+    java.nio.file.Path parent = javaPath.getParent();
+    if (parent == null) {
+      return null;
+    }
+    try {
+      return LockTable.getKey(parent).resolve(javaPath.getFileName());
+    } catch (IOException e) {
+      // Reported by the delete itself
+      return null;
+    }
+  }
+
+  /**
+   * Removes the cached channels of a deleted file, both the channels for reading, which are
+   * cached by the path given, and the channels for locks, which are cached by the real path.
+   */
+  private void invalidateChannels(java.nio.file.Path javaPath, java.nio.file.Path realPath) {
+    channelCache.invalidate(javaPath);
+    if (realPath != null && !realPath.equals(javaPath)) {
+      channelCache.invalidate(realPath);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Paths are grouped by parent directory, and each directory is opened once
+   * to delete its children relative to the open directory.</p>
+   */
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    return batch(
+        paths,
+        path -> {
+          delete(path);
+          return null;
+        },
+        (directory, name, path) -> {
+          if (
+              directory.getFileAttributeView(name, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                  .readAttributes().isDirectory()
+          ) {
+            directory.deleteDirectory(name);
+          } else {
+            java.nio.file.Path javaPath = (channelCache == null) ? null : getJavaPath(path);
+            java.nio.file.Path realPath = (channelCache == null) ? null : getRealParentPath(javaPath);
+            directory.deleteFile(name);
+            if (channelCache != null) {
+              invalidateChannels(javaPath, realPath);
+            }
+          }
+          return null;
+        }
+    );
   }
 
   @Override
@@ -228,6 +645,21 @@ public class JavaFileSystem implements FileSystem {
     return Files.size(getJavaPath(path));
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Paths are grouped by parent directory, and each directory is opened once
+   * to read the size of its children relative to the open directory.</p>
+   */
+  @Override
+  public List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    return batch(
+        paths,
+        this::size,
+        (directory, name, path) -> directory.getFileAttributeView(name, BasicFileAttributeView.class).readAttributes().size()
+    );
+  }
+
   @Override
   public Path createFile(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -237,6 +669,24 @@ public class JavaFileSystem implements FileSystem {
     return path;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Paths are grouped by parent directory, and each directory is opened once
+   * to create its new children relative to the open directory.</p>
+   */
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    return batch(
+        paths,
+        this::createFile,
+        (directory, name, path) -> {
+          directory.newByteChannel(name, CREATE_FILE_OPTIONS).close();
+          return path;
+        }
+    );
+  }
+
   @Override
   public Path createDirectory(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -246,21 +696,158 @@ public class JavaFileSystem implements FileSystem {
     return path;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Performed directly on the underlying paths, resolving the path only once.</p>
+   */
   @Override
-  public FileLock lock(Path path) throws IOException {
-    // Obtain lock
-    FileChannel channel = FileChannel.open(getJavaPath(path), StandardOpenOption.READ);
-    java.nio.channels.FileLock lock = channel.lock();
-    return new FileLock() {
-      @Override
-      public boolean isValid() {
-        return lock.isValid();
+  public Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    if (path.getParent() == null || (!isSingleRoot && path.getParent().getParent() == null)) {
+      // The root, or roots of a multi-root file system, are not created
+      return path;
+    }
+    java.nio.file.Path javaPath = getJavaPath(path);
+    // Try the directory itself first
+    try {
+      Files.createDirectory(javaPath);
+      return path;
+    } catch (FileAlreadyExistsException e) {
+      checkDirectory(javaPath, e);
+      return path;
+    } catch (NoSuchFileException e) {
+      // Back off upward
+    }
+    java.nio.file.Path[] missing = new java.nio.file.Path[javaPath.getNameCount()];
+    int count = 0;
+    missing[count++] = javaPath;
+    java.nio.file.Path p = javaPath.getParent();
+    while (p.getParent() != null) {
+      try {
+        Files.createDirectory(p);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        checkDirectory(p, e);
+        break;
+      } catch (NoSuchFileException e) {
+        missing[count++] = p;
+        p = p.getParent();
+      }
+    }
+    // Create downward
+    for (int i = count - 1; i >= 0; i--) {
+      java.nio.file.Path dir = missing[i];
+      try {
+        Files.createDirectory(dir);
+      } catch (FileAlreadyExistsException e) {
+        // Created concurrently
+        checkDirectory(dir, e);
       }
+    }
+    return path;
+  }
 
-      @Override
-      public void close() throws IOException {
-        channel.close();
+  /**
+   * Checks that an existing path is a directory, without following symbolic links.
+   *
+   * @throws FileAlreadyExistsException the given exception when not a directory
+   */
+  private static void checkDirectory(java.nio.file.Path javaPath, FileAlreadyExistsException e) throws FileAlreadyExistsException {
+    if (!Files.isDirectory(javaPath, LinkOption.NOFOLLOW_LINKS)) {
+      throw e;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Returns a {@link FileChannel}, so {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+   * and {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)} may be used to copy
+   * without passing through the Java heap.</p>
+   *
+   * <p>When {@linkplain #JavaFileSystem(java.nio.file.FileSystem, int) caching channels}, a channel
+   * opened only for reading is a view of a cached channel, with its own position.  The view does not
+   * support {@link FileChannel#lock(long, long, boolean)}; use {@link #lock(com.aoapps.io.filesystems.Path, long, long, boolean)}
+   * instead.</p>
+   */
+  @Override
+  public FileChannel newByteChannel(Path path, OpenOption... options) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    if (channelCache != null && isReadOnly(options)) {
+      return new SharedReadChannel(channelCache.acquire(getJavaPath(path), ChannelCache.Use.READ));
+    }
+    return FileChannel.open(getJavaPath(path), options);
+  }
+
+  /**
+   * Checks if options open a file only for reading, without any other effect.
+   */
+  private static boolean isReadOnly(OpenOption... options) {
+    for (OpenOption option : options) {
+      if (option != StandardOpenOption.READ) {
+        return false;
       }
-    };
+    }
+    return true;
+  }
+
+  @Override
+  public FileChannel openRead(Path path) throws IOException {
+    return newByteChannel(path, StandardOpenOption.READ);
+  }
+
+  @Override
+  public FileChannel openWrite(Path path) throws IOException {
+    return newByteChannel(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public FileLock lock(Path path) throws IOException {
+    return lock(path, 0, Long.MAX_VALUE, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Locks are coordinated within the JVM in memory, keyed by the real path of the file, while a single
+   * lock of the whole file is held with the operating system for as long as any thread
+   * in the JVM holds a lock on it.  Threads in the JVM may hold overlapping shared locks
+   * on the same file, and wait for each other's exclusive locks instead of failing with
+   * {@link java.nio.channels.OverlappingFileLockException}.</p>
+   *
+   * <p>Other processes see the lock of the whole file.  It is shared while only shared locks
+   * are held within the JVM.  An exclusive lock requested while the file is locked shared
+   * waits for all other holders within the JVM to unlock, and new shared locks wait behind it.</p>
+   *
+   * @throws FileLockInterruptionException if interrupted while waiting for the lock
+   */
+  @Override
+  public FileLock lock(Path path, long position, long size, boolean shared) throws IOException {
+    return tryLock(path, position, size, shared, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared) throws IOException {
+    return tryLock(path, position, size, shared, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Waits directly for other threads within the JVM, while the operating system lock is
+   * polled with backoff.</p>
+   */
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    RangeLocks.checkRange(position, size);
+    return lockTable.lock(getJavaPath(path), position, size, shared, unit.toNanos(timeout), channelCache);
   }
 }
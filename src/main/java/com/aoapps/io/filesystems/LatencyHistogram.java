@@ -0,0 +1,241 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latencies of a single operation, recorded without locking.
+ *
+ * <p>Latencies are counted in buckets of powers of two nanoseconds, each a {@link LongAdder}, so
+ * concurrent recording is spread over cells instead of contending on a single value.  Recording
+ * does not allocate once the adders have expanded to the level of contention.</p>
+ *
+ * <p>A {@link Snapshot} is not atomic with respect to concurrent recording, so its values may
+ * disagree slightly, such as a count that does not quite match the sum of the buckets.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class LatencyHistogram {
+
+  /**
+   * The number of buckets.  Bucket <code>0</code> counts latencies of zero,
+   * while each bucket <code>i &gt; 0</code> counts latencies in <code>[2<sup>i-1</sup>, 2<sup>i</sup>)</code>
+   * nanoseconds.
+   */
+  public static final int BUCKETS = Long.SIZE;
+
+  /**
+   * Gets the bucket that counts the given latency.
+   */
+  static int getBucket(long nanos) {
+    return (nanos <= 0) ? 0 : (Long.SIZE - Long.numberOfLeadingZeros(nanos));
+  }
+
+  /**
+   * Gets the largest latency counted by the given bucket.
+   */
+  static long getBucketMaxNanos(int bucket) {
+    return (bucket >= BUCKETS - 1) ? Long.MAX_VALUE : ((1L << bucket) - 1);
+  }
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a single operation.
+   *
+   * @param  nanos   The latency of the operation, in nanoseconds
+   * @param  failed  Whether the operation failed
+   */
+  public void record(long nanos, boolean failed) {
+    if (nanos < 0) {
+      // Clocks are not guaranteed to be monotonic on all platforms
+      nanos = 0;
+    }
+    count.increment();
+    if (failed) {
+      errors.increment();
+    }
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    buckets[getBucket(nanos)].increment();
+  }
+
+  /**
+   * Resets all counts to zero.  Operations recorded concurrently may be partially reset.
+   */
+  public void reset() {
+    count.reset();
+    errors.reset();
+    totalNanos.reset();
+    maxNanos.reset();
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+  }
+
+  /**
+   * Gets the current counts.
+   */
+  public Snapshot getSnapshot() {
+    long[] bucketCounts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      bucketCounts[i] = buckets[i].sum();
+    }
+    return new Snapshot(count.sum(), errors.sum(), totalNanos.sum(), maxNanos.get(), bucketCounts);
+  }
+
+  /**
+   * The counts of a {@link LatencyHistogram} at a point in time.
+   */
+  public static final class Snapshot {
+
+    private final long count;
+    private final long errors;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] bucketCounts;
+
+    private Snapshot(long count, long errors, long totalNanos, long maxNanos, long[] bucketCounts) {
+      this.count = count;
+      this.errors = errors;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      this.bucketCounts = bucketCounts;
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count
+          + ", errors=" + errors
+          + ", meanNanos=" + getMeanNanos()
+          + ", p50Nanos=" + getP50Nanos()
+          + ", p99Nanos=" + getP99Nanos()
+          + ", maxNanos=" + maxNanos;
+    }
+
+    /**
+     * Gets the number of operations, including those that failed.
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Gets the number of operations that failed.
+     */
+    public long getErrors() {
+      return errors;
+    }
+
+    /**
+     * Gets the sum of the latencies of all operations.
+     */
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    /**
+     * Gets the mean latency or {@code 0} when no operations.
+     */
+    public long getMeanNanos() {
+      return (count == 0) ? 0 : (totalNanos / count);
+    }
+
+    /**
+     * Gets the largest latency.
+     */
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Gets the counts of each bucket.
+     *
+     * @return  a copy of the counts, of length {@link LatencyHistogram#BUCKETS}
+     *
+     * @see  LatencyHistogram#BUCKETS
+     */
+    public long[] getBucketCounts() {
+      return bucketCounts.clone();
+    }
+
+    /**
+     * Gets an upper bound of the given percentile of latencies, accurate to within a factor of two.
+     *
+     * @param  percentile  The percentile, from <code>0</code> to <code>100</code>
+     *
+     * @return  the largest latency of the bucket containing the percentile, but not more than
+     *          {@linkplain #getMaxNanos() the largest latency}, or {@code 0} when no operations
+     */
+    public long getPercentileNanos(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("percentile not in [0, 100]: " + percentile);
+      }
+      long total = 0;
+      for (long bucketCount : bucketCounts) {
+        total += bucketCount;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(total * (percentile / 100)));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += bucketCounts[i];
+        if (seen >= rank) {
+          return Math.min(getBucketMaxNanos(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    public long getP50Nanos() {
+      return getPercentileNanos(50);
+    }
+
+    public long getP90Nanos() {
+      return getPercentileNanos(90);
+    }
+
+    public long getP99Nanos() {
+      return getPercentileNanos(99);
+    }
+
+    public long getP999Nanos() {
+      return getPercentileNanos(99.9);
+    }
+  }
+}
@@ -0,0 +1,381 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The file locks of the JVM, layered over the locks of the operating system.
+ *
+ * <p>Threads within the JVM coordinate through {@link RangeLocks} held in memory, one set per file.
+ * Only a single lock of the whole file is held with the operating system, acquired by the
+ * first local holder and released when the last local holder unlocks.  This avoids both
+ * the deadlock and the {@link java.nio.channels.OverlappingFileLockException} of multiple
+ * threads locking the same file through their own channels, and avoids a system call
+ * for each lock while the file remains locked.</p>
+ *
+ * <p>The operating system lock is shared while only shared locks are held.  An exclusive lock
+ * requested while the operating system lock is shared waits for all local holders to unlock,
+ * then acquires an exclusive operating system lock.  Writers are preferred: once an exclusive
+ * lock is waiting, new shared locks wait behind it, so a steady stream of shared locks cannot
+ * starve it.  A thread that requests a shared lock while already holding one may therefore
+ * deadlock with a waiting exclusive lock.</p>
+ *
+ * <p>Files are keyed by their {@linkplain java.nio.file.Path#toRealPath(java.nio.file.LinkOption...) real path},
+ * so a file reached through different symbolic links, or through relative and absolute paths,
+ * shares a single entry and a single operating system lock.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LockTable {
+
+  /**
+   * The locks of a single file.  All state is guarded by {@link Entry#ranges}.
+   */
+  private static final class Entry {
+
+    private final RangeLocks ranges = new RangeLocks();
+
+    /**
+     * The number of threads holding or waiting for a lock.  Only changed within
+     * {@link ConcurrentMap#compute(java.lang.Object, java.util.function.BiFunction)}.
+     */
+    private int references;
+
+    /**
+     * Set while a thread is acquiring the operating system lock, without holding the monitor.
+     */
+    private boolean acquiring;
+
+    /**
+     * The number of exclusive locks waiting for a shared operating system lock to be released.
+     * New shared locks wait while non-zero.
+     */
+    private int exclusiveWaiting;
+
+    private FileChannel channel;
+
+    /**
+     * The use of the channel when from a {@link ChannelCache}, otherwise the channel is closed on unlock.
+     */
+    private ChannelCache.Handle handle;
+
+    private java.nio.channels.FileLock osLock;
+  }
+
+  private final ConcurrentMap<java.nio.file.Path, Entry> entries = new ConcurrentHashMap<>();
+
+  private Entry reference(java.nio.file.Path file) {
+    return entries.compute(file, (k, entry) -> {
+      if (entry == null) {
+        entry = new Entry();
+      }
+      entry.references++;
+      return entry;
+    });
+  }
+
+  private void dereference(java.nio.file.Path file) {
+    entries.computeIfPresent(file, (k, entry) -> (--entry.references == 0) ? null : entry);
+  }
+
+  /**
+   * Gets the key of a file in the table, which is its real path.
+   *
+   * @throws NoSuchFileException if the file does not exist
+   */
+  static java.nio.file.Path getKey(java.nio.file.Path file) throws IOException {
+    return file.toRealPath();
+  }
+
+  /**
+   * Closes a channel of a file unless the file is locked.  Since the table is blocked
+   * from locking the file while closing, the close cannot release a lock acquired concurrently.
+   *
+   * @param  file  The {@linkplain #getKey(java.nio.file.Path) key} of the file
+   *
+   * @return  {@code true} when closed or {@code false} when the file is locked
+   */
+  boolean closeIfUnlocked(java.nio.file.Path file, FileChannel channel) {
+    boolean[] closed = {false};
+    entries.compute(file, (k, entry) -> {
+      if (entry == null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          // Closed anyway, nothing to report to
+        }
+        closed[0] = true;
+      }
+      return entry;
+    });
+    return closed[0];
+  }
+
+  /**
+   * Acquires a lock, waiting up to the given time.
+   *
+   * @param  timeoutNanos  The maximum time to wait, <code>0</code> to not wait,
+   *                       or {@link Long#MAX_VALUE} to wait forever
+   *
+   * @return  the lock or {@code null} when not acquired within the timeout
+   */
+  FileLock lock(java.nio.file.Path file, long position, long size, boolean shared, long timeoutNanos) throws IOException {
+    return lock(file, position, size, shared, timeoutNanos, null);
+  }
+
+  /**
+   * Acquires a lock, waiting up to the given time.
+   *
+   * @param  file          Any path to the file, resolved to its {@linkplain #getKey(java.nio.file.Path) key}
+   * @param  timeoutNanos  The maximum time to wait, <code>0</code> to not wait,
+   *                       or {@link Long#MAX_VALUE} to wait forever
+   * @param  channelCache  When not {@code null}, the channel for the operating system lock is
+   *                       taken from this cache instead of being opened
+   *
+   * @return  the lock or {@code null} when not acquired within the timeout
+   */
+  FileLock lock(
+      java.nio.file.Path file,
+      long position,
+      long size,
+      boolean shared,
+      long timeoutNanos,
+      ChannelCache channelCache
+  ) throws IOException {
+    long deadline = System.nanoTime() + timeoutNanos;
+    file = getKey(file);
+    Entry entry = reference(file);
+    boolean locked = false;
+    try {
+      RangeLocks.Range range = null;
+      synchronized (entry.ranges) {
+        // Counted in exclusiveWaiting
+        boolean waitingExclusive = false;
+        try {
+          while (true) {
+            if (
+                !entry.acquiring
+                    && (entry.osLock == null || !entry.osLock.isShared() || shared)
+                    && (!shared || entry.exclusiveWaiting == 0)
+            ) {
+              range = entry.ranges.tryLock(position, size, shared);
+              if (range != null) {
+                if (entry.osLock != null) {
+                  locked = true;
+                  return new TableLock(file, entry, range);
+                }
+                // Acquire the operating system lock, below, without holding the monitor
+                entry.acquiring = true;
+                break;
+              }
+            }
+            if (
+                !shared
+                    && !waitingExclusive
+                    && (entry.osLock == null || entry.osLock.isShared())
+            ) {
+              // Queue ahead of later shared locks
+              waitingExclusive = true;
+              entry.exclusiveWaiting++;
+            }
+            try {
+              if (timeoutNanos == Long.MAX_VALUE) {
+                entry.ranges.wait();
+              } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                  return null;
+                }
+                entry.ranges.wait(remaining / 1000000, (int) (remaining % 1000000));
+              }
+            } catch (InterruptedException e) {
+              // Restore the interrupted status
+              Thread.currentThread().interrupt();
+              throw new FileLockInterruptionException();
+            }
+          }
+        } finally {
+          if (waitingExclusive && --entry.exclusiveWaiting == 0) {
+            // Wake the shared locks waiting behind
+            entry.ranges.notifyAll();
+          }
+        }
+      }
+      FileChannel channel = null;
+      ChannelCache.Handle handle = null;
+      java.nio.channels.FileLock osLock = null;
+      TableLock lock = null;
+      try {
+        if (channelCache != null) {
+          handle = channelCache.acquire(file, shared ? ChannelCache.Use.LOCK_SHARED : ChannelCache.Use.LOCK_EXCLUSIVE);
+          channel = handle.getChannel();
+        } else {
+          channel = FileChannel.open(file, shared ? StandardOpenOption.READ : StandardOpenOption.WRITE);
+        }
+        osLock = lockOs(channel, shared, timeoutNanos, deadline);
+      } finally {
+        synchronized (entry.ranges) {
+          entry.acquiring = false;
+          if (osLock != null) {
+            entry.channel = channel;
+            entry.handle = handle;
+            entry.osLock = osLock;
+            lock = new TableLock(file, entry, range);
+            locked = true;
+            entry.ranges.notifyAll();
+          } else {
+            // Unlock also wakes any waiting
+            entry.ranges.unlock(range);
+            if (handle != null) {
+              if (!channel.isOpen()) {
+                // Closed by an interrupt while locking
+                handle.invalidate();
+              }
+              handle.release();
+            } else if (channel != null) {
+              channel.close();
+            }
+          }
+        }
+      }
+      return lock;
+    } finally {
+      if (!locked) {
+        dereference(file);
+      }
+    }
+  }
+
+  /**
+   * Acquires the operating system lock of the whole file.
+   *
+   * @return  the lock or {@code null} when not acquired within the timeout
+   */
+  private static java.nio.channels.FileLock lockOs(FileChannel channel, boolean shared, long timeoutNanos, long deadline)
+      throws IOException {
+    if (timeoutNanos == Long.MAX_VALUE) {
+      return channel.lock(0, Long.MAX_VALUE, shared);
+    }
+    long backoff = FileSystem.TRY_LOCK_MIN_BACKOFF_NANOS;
+    while (true) {
+      java.nio.channels.FileLock osLock = channel.tryLock(0, Long.MAX_VALUE, shared);
+      if (osLock != null) {
+        return osLock;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(Math.min(backoff, remaining));
+      } catch (InterruptedException e) {
+        // Restore the interrupted status
+        Thread.currentThread().interrupt();
+        throw new FileLockInterruptionException();
+      }
+      backoff = Math.min(backoff * 2, FileSystem.TRY_LOCK_MAX_BACKOFF_NANOS);
+    }
+  }
+
+  /**
+   * A lock held in the table.
+   */
+  private final class TableLock implements FileLock {
+
+    private final java.nio.file.Path file;
+    private final Entry entry;
+    private final RangeLocks.Range range;
+    private final java.nio.channels.FileLock osLock;
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+
+    private TableLock(java.nio.file.Path file, Entry entry, RangeLocks.Range range) {
+      assert Thread.holdsLock(entry.ranges);
+      this.file = file;
+      this.entry = entry;
+      this.range = range;
+      this.osLock = entry.osLock;
+    }
+
+    @Override
+    public boolean isValid() {
+      return valid.get() && osLock.isValid();
+    }
+
+    @Override
+    public long position() {
+      return range.getPosition();
+    }
+
+    @Override
+    public long size() {
+      return range.getSize();
+    }
+
+    @Override
+    public boolean isShared() {
+      return range.isShared();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (valid.compareAndSet(true, false)) {
+        try {
+          synchronized (entry.ranges) {
+            entry.ranges.unlock(range);
+            if (entry.ranges.isEmpty() && !entry.acquiring) {
+              FileChannel channel = entry.channel;
+              ChannelCache.Handle handle = entry.handle;
+              java.nio.channels.FileLock osLock = entry.osLock;
+              entry.channel = null;
+              entry.handle = null;
+              entry.osLock = null;
+              if (handle != null) {
+                // The channel remains open in the cache
+                try {
+                  osLock.release();
+                } finally {
+                  handle.release();
+                }
+              } else {
+                // Releases the operating system lock
+                channel.close();
+              }
+            }
+          }
+        } finally {
+          dereference(file);
+        }
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2015, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -99,6 +99,24 @@ public class Path implements Comparable<Path> {
     this.depth = parent.depth + 1;
   }
 
+  /**
+   * Constructs a child path of the given parent without any validation.
+   * This is only for names already known valid for the file system, such as
+   * those returned by its own listing or already validated by a wrapped
+   * file system.
+   *
+   * @param  trusted  Must be {@code true}, only distinguishes this constructor
+   */
+  Path(Path parent, String name, boolean trusted) {
+    assert trusted;
+    assert parent != null;
+    assert name != null && !name.isEmpty() && name.indexOf(SEPARATOR) == -1 : "Invalid trusted name: " + name;
+    this.fileSystem = parent.fileSystem;
+    this.parent = parent;
+    this.name = name;
+    this.depth = parent.depth + 1;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -149,7 +167,16 @@ public class Path implements Comparable<Path> {
     } else {
       int h = hash;
       if (h == 0) {
-        h = parent.hashCode() * 31 + name.hashCode();
+        // Sum upward without recursion, stopping at the first cached hash:
+        // hash = parent.hash * 31 + name.hashCode()
+        int multiplier = 1;
+        Path p = this;
+        do {
+          h += p.name.hashCode() * multiplier;
+          multiplier *= 31;
+          p = p.parent;
+        } while (p.parent != null && p.hash == 0);
+        h += p.hash * multiplier;
         hash = h;
       }
       return h;
@@ -189,17 +216,20 @@ public class Path implements Comparable<Path> {
     assert me.depth == meDepth;
     assert o.depth == odepth;
     assert meDepth == odepth;
+    // Find the difference closest to the root, stopping at any shared ancestor
+    Path meDiff = null;
+    Path oDiff = null;
     // Roots are always equal
-    if (meDepth != 0) {
-      // Compare parents first
-      int parentDiff = me.parent.compareTo(o.parent);
-      if (parentDiff != 0) {
-        return parentDiff;
-      }
-      int nameDiff = me.name.compareTo(o.name);
-      if (nameDiff != 0) {
-        return nameDiff;
+    while (me != o && me.parent != null) {
+      if (!me.name.equals(o.name)) {
+        meDiff = me;
+        oDiff = o;
       }
+      me = me.parent;
+      o = o.parent;
+    }
+    if (meDiff != null) {
+      return meDiff.name.compareTo(oDiff.name);
     }
     return tailDiff;
   }
@@ -226,14 +256,22 @@ public class Path implements Comparable<Path> {
           totalLen++;
         }
       } while (path != null);
-      StringBuilder buff = new StringBuilder(totalLen);
-      try {
-        toString(buff);
-      } catch (IOException e) {
-        throw new AssertionError("IOException should not happen with StringBuilder", e);
-      }
-      assert buff.length() == totalLen : "StringBuffer preallocation inconsistent with resulting String length";
-      return buff.toString();
+      // Fill from the end, iterating up the parents
+      char[] chars = new char[totalLen];
+      int pos = totalLen;
+      path = this;
+      do {
+        String n = path.name;
+        int nameLen = n.length();
+        pos -= nameLen;
+        n.getChars(0, nameLen, chars, pos);
+        path = path.parent;
+        if (path != null) {
+          chars[--pos] = SEPARATOR;
+        }
+      } while (path != null);
+      assert pos == 0 : "Character preallocation inconsistent with resulting String length";
+      return new String(chars);
     }
   }
 
@@ -247,21 +285,134 @@ public class Path implements Comparable<Path> {
     if (parent == null) {
       out.append(SEPARATOR);
     } else {
-      toString0(out);
+      appendSegments(out);
     }
   }
 
   /**
-   * Recursive component of {@link Path#toString()}.
+   * The number of names appended by each level of recursion in {@link Path#appendSegments(java.lang.Appendable)}.
    */
-  private void toString0(Appendable out) throws IOException {
-    if (parent != null) {
-      parent.toString0(out);
-      out.append(SEPARATOR);
+  private static final int APPEND_SEGMENT_DEPTH = 64;
+
+  /**
+   * Appends all names of this path, without intermediate allocation.  The names are split into
+   * segments of {@link Path#APPEND_SEGMENT_DEPTH}, with one level of recursion per segment plus
+   * one per name within a segment, so deep paths are appended in linear time with limited recursion.
+   */
+  private void appendSegments(Appendable out) throws IOException {
+    assert depth > 0;
+    int segmentTop = (depth - 1) / APPEND_SEGMENT_DEPTH * APPEND_SEGMENT_DEPTH;
+    if (segmentTop > 0) {
+      getAncestor(segmentTop).appendSegments(out);
     }
+    appendSegment(out, segmentTop);
+  }
+
+  /**
+   * Appends the names of this path below the given ancestor depth.
+   */
+  private void appendSegment(Appendable out, int topDepth) throws IOException {
+    if (parent.depth > topDepth) {
+      parent.appendSegment(out, topDepth);
+    }
+    out.append(SEPARATOR);
     out.append(name);
   }
 
+  /**
+   * Gets the ancestor of this path at the given depth, which may be this path.
+   */
+  private Path getAncestor(int ancestorDepth) {
+    assert ancestorDepth >= 0 && ancestorDepth <= depth;
+    Path p = this;
+    while (p.depth > ancestorDepth) {
+      p = p.parent;
+    }
+    return p;
+  }
+
+  /**
+   * Checks if this path starts with the given path.  Every path starts with
+   * the root and with itself.
+   * As with {@link Path#equals(com.aoapps.io.filesystems.Path)}, the file systems are not compared.
+   */
+  public boolean startsWith(Path other) {
+    return
+        other.depth <= depth
+            && getAncestor(other.depth).equals(other);
+  }
+
+  /**
+   * Finds the deepest path that both this path and the given path start with.
+   * The result is always this path or one of its ancestors, with the root
+   * as the common ancestor of unrelated paths.
+   * As with {@link Path#equals(com.aoapps.io.filesystems.Path)}, the file systems are not compared.
+   */
+  public Path commonAncestor(Path other) {
+    Path me = this;
+    Path o = other;
+    if (me.depth > o.depth) {
+      me = me.getAncestor(o.depth);
+    } else if (o.depth > me.depth) {
+      o = o.getAncestor(me.depth);
+    }
+    // The deepest path without any difference at or above it
+    Path common = me;
+    while (me != o && me.parent != null) {
+      if (!me.name.equals(o.name)) {
+        common = me.parent;
+      }
+      me = me.parent;
+      o = o.parent;
+    }
+    return common;
+  }
+
+  /**
+   * Resolves the given path against this path, appending all its names to this path.
+   * The names are validated again for this file system.
+   * Resolving the root returns this path.
+   *
+   * @param  other  May be from any file system
+   *
+   * @see Path#relativize(com.aoapps.io.filesystems.Path) for the inverse operation
+   */
+  public Path resolve(Path other) throws InvalidPathException {
+    Path p = this;
+    for (String n : other.explode()) {
+      p = new Path(p, n);
+    }
+    return p;
+  }
+
+  /**
+   * Gets the path of the given descendant relative to this path, as a path from
+   * the root of the descendant's file system.  There is no concept of "..",
+   * so the other path must start with this path.
+   * Relativizing this path itself returns the root.
+   *
+   * @throws IllegalArgumentException if the other path does not start with this path
+   *
+   * @see Path#resolve(com.aoapps.io.filesystems.Path) for the inverse operation
+   */
+  public Path relativize(Path other) throws IllegalArgumentException {
+    if (!other.startsWith(this)) {
+      throw new IllegalArgumentException("Path does not start with " + this + ": " + other);
+    }
+    // Collect the names below this path in a single upward pass
+    String[] names = new String[other.depth - depth];
+    Path o = other;
+    for (int i = names.length - 1; i >= 0; i--) {
+      names[i] = o.name;
+      o = o.parent;
+    }
+    Path p = new Path(other.fileSystem);
+    for (String n : names) {
+      p = new Path(p, n);
+    }
+    return p;
+  }
+
   /**
    * Gets the file system this path belongs to and is valid for.
    */
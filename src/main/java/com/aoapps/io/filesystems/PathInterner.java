@@ -0,0 +1,403 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded, concurrent table of canonical {@link Path} instances for a single file system.
+ *
+ * <p>Each child path is keyed by its canonical parent and name, so parsing a path
+ * whose parents are already interned reuses the already-validated parent chain.
+ * Only new names are passed through {@link FileSystem#checkSubPath(com.aoapps.io.filesystems.Path, java.lang.String)}.
+ * Lookups compare directly against the parsed string, so a path that is fully
+ * interned is parsed without allocating any substrings.</p>
+ *
+ * <p>Paths are only weakly referenced and are removed from the table once no
+ * longer used elsewhere.  When the table reaches its maximum size, further
+ * paths are still returned, but are not interned.</p>
+ *
+ * <p>Two interned paths from the same interner are equal only when they are the
+ * same instance, so {@link Path#equals(com.aoapps.io.filesystems.Path)} returns
+ * on its identity check.</p>
+ *
+ * <p>Path wrappers are specific to their {@link FileSystemWrapper}, so the paths of
+ * a wrapper may not be interned.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class PathInterner {
+
+  /**
+   * The default maximum number of paths interned.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1 << 20;
+
+  /**
+   * A key of (parent, name), with the hash matching {@link Path#hashCode()}
+   * of the child.
+   */
+  private abstract static class Key {
+    final Path parent;
+    final int hash;
+
+    Key(Path parent, int hash) {
+      this.parent = parent;
+      this.hash = hash;
+    }
+
+    @Override
+    public final int hashCode() {
+      return hash;
+    }
+
+    abstract int nameLength();
+
+    abstract boolean nameRegionMatches(String other, int otherStart);
+
+    @Override
+    public final boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      if (hash != other.hash || parent != other.parent) {
+        return false;
+      }
+      int len = nameLength();
+      if (len != other.nameLength()) {
+        return false;
+      }
+      if (other instanceof NameKey) {
+        return nameRegionMatches(((NameKey) other).name, 0);
+      } else {
+        SubstringKey sub = (SubstringKey) other;
+        return nameRegionMatches(sub.value, sub.start);
+      }
+    }
+  }
+
+  /**
+   * The key stored in the table.
+   */
+  private static final class NameKey extends Key {
+    final String name;
+
+    NameKey(Path parent, String name, int hash) {
+      super(parent, hash);
+      this.name = name;
+    }
+
+    @Override
+    int nameLength() {
+      return name.length();
+    }
+
+    @Override
+    boolean nameRegionMatches(String other, int otherStart) {
+      return name.regionMatches(0, other, otherStart, name.length());
+    }
+  }
+
+  /**
+   * A key used for lookups only, which avoids the substring until a new path
+   * must be created.
+   */
+  private static final class SubstringKey extends Key {
+    final String value;
+    final int start;
+    final int end;
+
+    SubstringKey(Path parent, String value, int start, int end, int hash) {
+      super(parent, hash);
+      this.value = value;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    int nameLength() {
+      return end - start;
+    }
+
+    @Override
+    boolean nameRegionMatches(String other, int otherStart) {
+      return value.regionMatches(start, other, otherStart, end - start);
+    }
+  }
+
+  /**
+   * The weak reference to an interned path, which remembers its key for removal.
+   */
+  private static final class Entry extends WeakReference<Path> {
+    final NameKey key;
+
+    Entry(Path path, NameKey key, ReferenceQueue<Path> queue) {
+      super(path, queue);
+      this.key = key;
+    }
+  }
+
+  private final FileSystem fileSystem;
+  private final int maxSize;
+  private final Path root;
+  private final ConcurrentMap<Key, Entry> table = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Path> queue = new ReferenceQueue<>();
+
+  /**
+   * Creates a new interner.
+   *
+   * @param  maxSize  The maximum number of non-root paths to intern
+   *
+   * @throws IllegalArgumentException if {@code fileSystem} is a {@link FileSystemWrapper}
+   */
+  public PathInterner(FileSystem fileSystem, int maxSize) throws IllegalArgumentException {
+    if (fileSystem instanceof FileSystemWrapper) {
+      throw new IllegalArgumentException("Paths of a FileSystemWrapper may not be interned");
+    }
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize < 0: " + maxSize);
+    }
+    this.fileSystem = fileSystem;
+    this.maxSize = maxSize;
+    this.root = new Path(fileSystem);
+  }
+
+  /**
+   * Creates a new interner of {@link #DEFAULT_MAX_SIZE}.
+   *
+   * @throws IllegalArgumentException if {@code fileSystem} is a {@link FileSystemWrapper}
+   */
+  public PathInterner(FileSystem fileSystem) throws IllegalArgumentException {
+    this(fileSystem, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Gets the file system this interner is for.
+   */
+  public FileSystem getFileSystem() {
+    return fileSystem;
+  }
+
+  /**
+   * Gets the maximum number of non-root paths interned.
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Gets the number of non-root paths currently interned, which may include
+   * paths that are no longer referenced but not yet removed.
+   */
+  public int size() {
+    expungeStale();
+    return table.size();
+  }
+
+  /**
+   * Gets the canonical root path.
+   */
+  public Path getRoot() {
+    return root;
+  }
+
+  /**
+   * Removes all entries whose paths have been garbage collected.
+   */
+  private void expungeStale() {
+    Entry entry;
+    while ((entry = (Entry) queue.poll()) != null) {
+      table.remove(entry.key, entry);
+    }
+  }
+
+  /**
+   * Computes the hash of a child, matching {@link Path#hashCode()}.
+   */
+  private static int hash(Path parent, String value, int start, int end) {
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + value.charAt(i);
+    }
+    return parent.hashCode() * 31 + h;
+  }
+
+  /**
+   * Tracks the progress of resolving a path one name at a time.
+   */
+  private static final class Cursor {
+    Path path;
+    /**
+     * Once a path is not interned, none of its descendants will be either.
+     */
+    boolean canonical = true;
+
+    Cursor(Path root) {
+      this.path = root;
+    }
+  }
+
+  /**
+   * Moves the cursor to the child of the given name, creating and interning
+   * the child as needed.
+   */
+  private void child(Cursor cursor, String value, int start, int end) throws InvalidPathException {
+    Path parent = cursor.path;
+    if (cursor.canonical && start < end) {
+      int hash = hash(parent, value, start, end);
+      Entry entry = table.get(new SubstringKey(parent, value, start, end, hash));
+      Path existing;
+      if (entry != null && (existing = entry.get()) != null) {
+        cursor.path = existing;
+        return;
+      }
+      // Validates the new name
+      String name = value.substring(start, end);
+      Path path = new Path(parent, name);
+      Path interned = intern(path, new NameKey(parent, name, hash));
+      if (interned == null) {
+        cursor.path = path;
+        cursor.canonical = false;
+      } else {
+        cursor.path = interned;
+      }
+    } else {
+      cursor.path = new Path(parent, value.substring(start, end));
+      cursor.canonical = false;
+    }
+  }
+
+  /**
+   * Adds a new path, or returns the path added concurrently by another thread.
+   *
+   * @return  the canonical path or {@code null} when the table is full
+   */
+  private Path intern(Path path, NameKey key) {
+    expungeStale();
+    if (table.size() >= maxSize) {
+      return null;
+    }
+    Entry newEntry = new Entry(path, key, queue);
+    while (true) {
+      Entry existingEntry = table.putIfAbsent(key, newEntry);
+      if (existingEntry == null) {
+        return path;
+      }
+      Path existing = existingEntry.get();
+      if (existing != null) {
+        return existing;
+      }
+      // Replace the cleared entry
+      if (table.replace(key, existingEntry, newEntry)) {
+        return path;
+      }
+    }
+  }
+
+  /**
+   * Checks if the given path is interned in this table.
+   */
+  private boolean isCanonical(Path path) {
+    if (path == root) {
+      return true;
+    }
+    Path parent = path.getParent();
+    if (parent == null) {
+      return false;
+    }
+    Entry entry = table.get(new NameKey(parent, path.getName(), path.hashCode()));
+    return entry != null && entry.get() == path;
+  }
+
+  /**
+   * Gets the canonical instance of the given path.
+   * When the table is full, the returned path might not be interned.
+   *
+   * @param  path  Must be from this file system.
+   */
+  public Path intern(Path path) throws InvalidPathException {
+    if (path.getFileSystem() != fileSystem) {
+      throw new IllegalArgumentException();
+    }
+    if (isCanonical(path)) {
+      return path;
+    }
+    Cursor cursor = new Cursor(root);
+    for (String name : path.explode()) {
+      child(cursor, name, 0, name.length());
+    }
+    return cursor.path;
+  }
+
+  /**
+   * Joins the array of names to an interned path.
+   *
+   * @see FileSystem#join(java.lang.String[])
+   */
+  public Path join(String[] names) throws InvalidPathException {
+    Cursor cursor = new Cursor(root);
+    for (String name : names) {
+      if (name == null) {
+        break;
+      }
+      child(cursor, name, 0, name.length());
+    }
+    return cursor.path;
+  }
+
+  /**
+   * Parses a string representation of a path to an interned path.
+   *
+   * @see FileSystem#parsePath(java.lang.String)
+   */
+  public Path parsePath(String value) throws InvalidPathException {
+    int len = value.length();
+    // Check for root
+    if (len == 0 || (len == 1 && value.charAt(0) == Path.SEPARATOR)) {
+      return root;
+    }
+    // root must have empty name
+    int firstSepPos = value.indexOf(Path.SEPARATOR);
+    if (firstSepPos == -1) {
+      firstSepPos = len;
+    }
+    if (firstSepPos != 0) {
+      throw new InvalidPathException("Non-empty root name: " + value.substring(0, firstSepPos));
+    }
+    Cursor cursor = new Cursor(root);
+    int lastSepPos = 0;
+    do {
+      int sepPos = value.indexOf(Path.SEPARATOR, lastSepPos + 1);
+      if (sepPos == -1) {
+        sepPos = len;
+      }
+      child(cursor, value, lastSepPos + 1, sepPos);
+      lastSepPos = sepPos;
+    } while (lastSepPos < len);
+    return cursor.path;
+  }
+}
@@ -0,0 +1,563 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A compact, columnar store of the paths of a single file system.
+ *
+ * <p>Each path is identified by an <code>int</code> handle, with the root always
+ * at {@link #ROOT}.  A path is stored as only the handle of its parent and the
+ * identifier of its name, and each distinct name is stored only once as
+ * characters.  All storage is in primitive buffers, which may be allocated
+ * outside the Java heap, so millions of paths do not create millions of
+ * objects for the garbage collector to trace.</p>
+ *
+ * <p>Handles are converted to and from {@link Path} on demand by
+ * {@link #toPath(int)} and {@link #add(com.aoapps.io.filesystems.Path)}.  Paths are
+ * never removed, so a handle remains valid for the life of the table.</p>
+ *
+ * <p>This class is not thread-safe.  Concurrent access must be externally
+ * synchronized, although any number of threads may read once all additions
+ * are complete and safely published.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class PathTable {
+
+  /**
+   * The handle of the root path.
+   */
+  public static final int ROOT = 0;
+
+  /**
+   * The handle returned when a path is not in the table.
+   */
+  public static final int NOT_FOUND = -1;
+
+  /**
+   * The parent handle of the root.
+   */
+  private static final int NO_PARENT = -1;
+
+  /**
+   * The identifier of the empty root name.
+   */
+  private static final int ROOT_NAME = 0;
+
+  /**
+   * An empty slot in the open-addressing hash tables.
+   */
+  private static final int EMPTY = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final FileSystem fileSystem;
+  private final boolean direct;
+
+  // Paths, by handle
+  private IntBuffer parents;
+  private IntBuffer nameIds;
+  private int size;
+
+  // Names, by identifier, with the end of each name being the start of the next
+  private IntBuffer nameStarts;
+  private CharBuffer nameChars;
+  private int nameCount;
+  private int nameCharsSize;
+
+  // Hash of (parent, nameId) to handle
+  private IntBuffer pathSlots;
+
+  // Hash of name characters to nameId
+  private IntBuffer nameSlots;
+
+  /**
+   * Creates a new table containing only the root.
+   *
+   * @param  direct  When {@code true}, storage is allocated with {@link ByteBuffer#allocateDirect(int)},
+   *                 outside the Java heap.
+   */
+  public PathTable(FileSystem fileSystem, boolean direct) {
+    if (fileSystem instanceof FileSystemWrapper) {
+      throw new IllegalArgumentException("Paths of a FileSystemWrapper may not be stored in a PathTable");
+    }
+    this.fileSystem = fileSystem;
+    this.direct = direct;
+    parents = allocateInts(INITIAL_CAPACITY);
+    nameIds = allocateInts(INITIAL_CAPACITY);
+    nameStarts = allocateInts(INITIAL_CAPACITY + 1);
+    nameChars = allocateChars(INITIAL_CAPACITY * 8);
+    pathSlots = allocateSlots(INITIAL_CAPACITY * 2);
+    nameSlots = allocateSlots(INITIAL_CAPACITY * 2);
+    // The empty root name
+    nameStarts.put(0, 0);
+    nameStarts.put(1, 0);
+    nameCount = 1;
+    // The root path, which is not in pathSlots
+    parents.put(ROOT, NO_PARENT);
+    nameIds.put(ROOT, ROOT_NAME);
+    size = 1;
+  }
+
+  /**
+   * Creates a new table on the Java heap.
+   */
+  public PathTable(FileSystem fileSystem) {
+    this(fileSystem, false);
+  }
+
+  /**
+   * Gets the file system the paths are for.
+   */
+  public FileSystem getFileSystem() {
+    return fileSystem;
+  }
+
+  /**
+   * Is storage allocated outside the Java heap.
+   */
+  public boolean isDirect() {
+    return direct;
+  }
+
+  /**
+   * Gets the number of paths, including the root.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of distinct names, including the empty root name.
+   */
+  public int getNameCount() {
+    return nameCount;
+  }
+
+  private IntBuffer allocateInts(int capacity) {
+    if (direct) {
+      return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Integer.BYTES)).order(ByteOrder.nativeOrder()).asIntBuffer();
+    } else {
+      return IntBuffer.allocate(capacity);
+    }
+  }
+
+  private CharBuffer allocateChars(int capacity) {
+    if (direct) {
+      return ByteBuffer.allocateDirect(Math.multiplyExact(capacity, Character.BYTES)).order(ByteOrder.nativeOrder()).asCharBuffer();
+    } else {
+      return CharBuffer.allocate(capacity);
+    }
+  }
+
+  private IntBuffer allocateSlots(int capacity) {
+    IntBuffer slots = allocateInts(capacity);
+    for (int i = 0; i < capacity; i++) {
+      slots.put(i, EMPTY);
+    }
+    return slots;
+  }
+
+  /**
+   * Computes the new capacity to hold at least the given size.
+   */
+  private static int grow(int capacity, int minCapacity) {
+    if (minCapacity < 0) {
+      throw new OutOfMemoryError("PathTable too large");
+    }
+    int newCapacity = capacity + (capacity >> 1);
+    if (newCapacity < minCapacity || newCapacity < 0) {
+      newCapacity = minCapacity;
+    }
+    return newCapacity;
+  }
+
+  private IntBuffer copyOf(IntBuffer old, int used, int newCapacity) {
+    IntBuffer copy = allocateInts(newCapacity);
+    IntBuffer src = old.duplicate();
+    ((Buffer) src).position(0).limit(used);
+    copy.put(src);
+    ((Buffer) copy).clear();
+    return copy;
+  }
+
+  private CharBuffer copyOf(CharBuffer old, int used, int newCapacity) {
+    CharBuffer copy = allocateChars(newCapacity);
+    CharBuffer src = old.duplicate();
+    ((Buffer) src).position(0).limit(used);
+    copy.put(src);
+    ((Buffer) copy).clear();
+    return copy;
+  }
+
+  private static int hashName(CharSequence name) {
+    int h = 0;
+    for (int i = 0, len = name.length(); i < len; i++) {
+      h = 31 * h + name.charAt(i);
+    }
+    return h;
+  }
+
+  private int hashName(int nameId) {
+    int h = 0;
+    for (int i = nameStarts.get(nameId), end = nameStarts.get(nameId + 1); i < end; i++) {
+      h = 31 * h + nameChars.get(i);
+    }
+    return h;
+  }
+
+  private static int hashPath(int parent, int nameId) {
+    return parent * 31 + nameId;
+  }
+
+  /**
+   * Spreads the hash and maps it to a slot.
+   */
+  private static int slot(int hash, int mask) {
+    hash ^= hash >>> 16;
+    hash *= 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private boolean nameEquals(int nameId, CharSequence name) {
+    int start = nameStarts.get(nameId);
+    int len = nameStarts.get(nameId + 1) - start;
+    if (len != name.length()) {
+      return false;
+    }
+    for (int i = 0; i < len; i++) {
+      if (nameChars.get(start + i) != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the identifier of the given name.
+   *
+   * @return  the identifier or {@link #NOT_FOUND}
+   */
+  private int findName(CharSequence name) {
+    if (name.length() == 0) {
+      return ROOT_NAME;
+    }
+    int mask = nameSlots.capacity() - 1;
+    for (int i = slot(hashName(name), mask); ; i = (i + 1) & mask) {
+      int nameId = nameSlots.get(i);
+      if (nameId == EMPTY) {
+        return NOT_FOUND;
+      }
+      if (nameEquals(nameId, name)) {
+        return nameId;
+      }
+    }
+  }
+
+  /**
+   * Gets the identifier of the given name, adding it when new.
+   */
+  private int addName(String name) {
+    int nameId = findName(name);
+    if (nameId != NOT_FOUND) {
+      return nameId;
+    }
+    int len = name.length();
+    // Grow storage
+    int newCharsSize = nameCharsSize + len;
+    if (newCharsSize < 0) {
+      throw new OutOfMemoryError("PathTable too large");
+    }
+    if (newCharsSize > nameChars.capacity()) {
+      nameChars = copyOf(nameChars, nameCharsSize, grow(nameChars.capacity(), newCharsSize));
+    }
+    if (nameCount + 1 >= nameStarts.capacity()) {
+      nameStarts = copyOf(nameStarts, nameCount + 1, grow(nameStarts.capacity(), nameCount + 2));
+    }
+    // Store characters
+    for (int i = 0; i < len; i++) {
+      nameChars.put(nameCharsSize + i, name.charAt(i));
+    }
+    nameCharsSize = newCharsSize;
+    nameId = nameCount++;
+    nameStarts.put(nameCount, nameCharsSize);
+    // Index, keeping load at or below one half
+    if (nameCount * 2 > nameSlots.capacity()) {
+      IntBuffer newSlots = allocateSlots(nameSlots.capacity() * 2);
+      int mask = newSlots.capacity() - 1;
+      for (int id = ROOT_NAME + 1; id < nameCount; id++) {
+        insertSlot(newSlots, slot(hashName(id), mask), mask, id);
+      }
+      nameSlots = newSlots;
+    } else {
+      int mask = nameSlots.capacity() - 1;
+      insertSlot(nameSlots, slot(hashName(name), mask), mask, nameId);
+    }
+    return nameId;
+  }
+
+  private static void insertSlot(IntBuffer slots, int i, int mask, int value) {
+    while (slots.get(i) != EMPTY) {
+      i = (i + 1) & mask;
+    }
+    slots.put(i, value);
+  }
+
+  /**
+   * Finds the handle of a child by name identifier.
+   */
+  private int findChild(int parent, int nameId) {
+    int mask = pathSlots.capacity() - 1;
+    for (int i = slot(hashPath(parent, nameId), mask); ; i = (i + 1) & mask) {
+      int handle = pathSlots.get(i);
+      if (handle == EMPTY) {
+        return NOT_FOUND;
+      }
+      if (parents.get(handle) == parent && nameIds.get(handle) == nameId) {
+        return handle;
+      }
+    }
+  }
+
+  private void checkHandle(int handle) throws IllegalArgumentException {
+    if (handle < 0 || handle >= size) {
+      throw new IllegalArgumentException("Invalid handle: " + handle);
+    }
+  }
+
+  /**
+   * Finds the handle of a child of the given parent.
+   *
+   * @return  the handle or {@link #NOT_FOUND}
+   */
+  public int getChild(int parent, CharSequence name) throws IllegalArgumentException {
+    checkHandle(parent);
+    int nameId = findName(name);
+    return (nameId == NOT_FOUND || nameId == ROOT_NAME) ? NOT_FOUND : findChild(parent, nameId);
+  }
+
+  /**
+   * Adds a child, which must already be known valid.
+   */
+  private int addChild(int parent, String name) {
+    int nameId = addName(name);
+    int handle = findChild(parent, nameId);
+    if (handle != NOT_FOUND) {
+      return handle;
+    }
+    if (size == Integer.MAX_VALUE) {
+      throw new OutOfMemoryError("PathTable too large");
+    }
+    if (size >= parents.capacity()) {
+      int newCapacity = grow(parents.capacity(), size + 1);
+      parents = copyOf(parents, size, newCapacity);
+      nameIds = copyOf(nameIds, size, newCapacity);
+    }
+    handle = size++;
+    parents.put(handle, parent);
+    nameIds.put(handle, nameId);
+    // Index, keeping load at or below one half
+    if (size * 2 > pathSlots.capacity()) {
+      IntBuffer newSlots = allocateSlots(pathSlots.capacity() * 2);
+      int mask = newSlots.capacity() - 1;
+      for (int h = ROOT + 1; h < size; h++) {
+        insertSlot(newSlots, slot(hashPath(parents.get(h), nameIds.get(h)), mask), mask, h);
+      }
+      pathSlots = newSlots;
+    } else {
+      int mask = pathSlots.capacity() - 1;
+      insertSlot(pathSlots, slot(hashPath(parent, nameId), mask), mask, handle);
+    }
+    return handle;
+  }
+
+  /**
+   * Adds a path and all of its parents, returning the handle of the path.
+   * If the path already exists, returns its existing handle.
+   *
+   * @param  path  Must be from this file system.
+   */
+  public int add(Path path) throws IllegalArgumentException {
+    if (path.getFileSystem() != fileSystem) {
+      throw new IllegalArgumentException();
+    }
+    int depth = path.getDepth();
+    if (depth == 0) {
+      return ROOT;
+    }
+    // Existing ancestors are found by addChild, so only the new are added
+    int handle = ROOT;
+    for (Path ancestor : getAncestors(path, depth)) {
+      handle = addChild(handle, ancestor.getName());
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the path and its ancestors below the root, from the top down, in a single upward pass.
+   */
+  private static Path[] getAncestors(Path path, int depth) {
+    Path[] ancestors = new Path[depth];
+    for (int d = depth - 1; d >= 0; d--) {
+      ancestors[d] = path;
+      path = path.getParent();
+    }
+    return ancestors;
+  }
+
+  /**
+   * Finds the handle of the given path.
+   *
+   * @param  path  Must be from this file system.
+   *
+   * @return  the handle or {@link #NOT_FOUND}
+   */
+  public int indexOf(Path path) throws IllegalArgumentException {
+    if (path.getFileSystem() != fileSystem) {
+      throw new IllegalArgumentException();
+    }
+    int depth = path.getDepth();
+    if (depth == 0) {
+      return ROOT;
+    }
+    // Walk from the root, one depth at a time
+    int handle = ROOT;
+    for (Path ancestor : getAncestors(path, depth)) {
+      handle = getChild(handle, ancestor.getName());
+      if (handle == NOT_FOUND) {
+        return NOT_FOUND;
+      }
+    }
+    return handle;
+  }
+
+  /**
+   * Gets the handle of the parent.
+   *
+   * @return  the parent handle or {@link #NOT_FOUND} for the root
+   */
+  public int getParent(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    int parent = parents.get(handle);
+    return parent == NO_PARENT ? NOT_FOUND : parent;
+  }
+
+  /**
+   * Gets the identifier of the name of the path.  Two paths have the same name
+   * if and only if they have the same name identifier.
+   */
+  public int getNameId(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    return nameIds.get(handle);
+  }
+
+  /**
+   * Gets the name of the path, creating a new string.
+   *
+   * @see Path#getName()
+   */
+  public String getName(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    int nameId = nameIds.get(handle);
+    int start = nameStarts.get(nameId);
+    int end = nameStarts.get(nameId + 1);
+    CharBuffer name = nameChars.duplicate();
+    ((Buffer) name).position(start).limit(end);
+    return name.toString();
+  }
+
+  /**
+   * Gets the depth of the path.
+   *
+   * @see Path#getDepth()
+   */
+  public int getDepth(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    int depth = 0;
+    while (handle != ROOT) {
+      handle = parents.get(handle);
+      depth++;
+    }
+    return depth;
+  }
+
+  /**
+   * Creates a new {@link Path} for the given handle.
+   *
+   * @see FileSystem#join(java.lang.String[])
+   */
+  public Path toPath(int handle) throws IllegalArgumentException {
+    int depth = getDepth(handle);
+    String[] names = new String[depth];
+    for (int i = depth - 1; i >= 0; i--) {
+      names[i] = getName(handle);
+      handle = parents.get(handle);
+    }
+    return fileSystem.join(names);
+  }
+
+  /**
+   * Appends the string representation of the path, without creating any {@link Path}.
+   *
+   * @see Path#toString(java.lang.Appendable)
+   */
+  public void toString(int handle, Appendable out) throws IllegalArgumentException, IOException {
+    int depth = getDepth(handle);
+    if (depth == 0) {
+      out.append(Path.SEPARATOR);
+      return;
+    }
+    int[] handles = new int[depth];
+    for (int i = depth - 1; i >= 0; i--) {
+      handles[i] = handle;
+      handle = parents.get(handle);
+    }
+    for (int h : handles) {
+      out.append(Path.SEPARATOR);
+      int nameId = nameIds.get(h);
+      out.append(nameChars, nameStarts.get(nameId), nameStarts.get(nameId + 1));
+    }
+  }
+
+  /**
+   * Gets the string representation of the path, without creating any {@link Path}.
+   *
+   * @see Path#toString()
+   */
+  public String toString(int handle) throws IllegalArgumentException {
+    StringBuilder sb = new StringBuilder();
+    try {
+      toString(handle, sb);
+    } catch (IOException e) {
+      throw new AssertionError("IOException should not happen with StringBuilder", e);
+    }
+    return sb.toString();
+  }
+}
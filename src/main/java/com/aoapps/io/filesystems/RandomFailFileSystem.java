@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2019, 2020, 2021, 2022, 2024, 2025  AO Industries, Inc.
+ * Copyright (C) 2015, 2019, 2020, 2021, 2022, 2024, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,9 +26,19 @@ package com.aoapps.io.filesystems;
 import com.aoapps.lang.Throwables;
 import com.aoapps.lang.io.IoUtils;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryIteratorException;
+import java.nio.file.OpenOption;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * A file system implementation that randomly fails, this is used by test
@@ -88,6 +98,10 @@ public class RandomFailFileSystem extends FileSystemWrapper {
       return 0.001f;
     }
 
+    default float getReadAttributes() {
+      return 0.001f;
+    }
+
     default float getUnlink() {
       return 0.001f;
     }
@@ -107,6 +121,22 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     default float getLock() {
       return 0.0001f;
     }
+
+    default float getOpen() {
+      return 0.001f;
+    }
+
+    default float getRead() {
+      return 0.0001f;
+    }
+
+    default float getWrite() {
+      return 0.0001f;
+    }
+
+    default float getChannelClose() {
+      return 0.001f;
+    }
   }
 
   private final FailureProbabilities failureProbabilities;
@@ -166,7 +196,7 @@ public class RandomFailFileSystem extends FileSystemWrapper {
       throw new IllegalArgumentException();
     }
     randomFail(failureProbabilities.getList());
-    PathWrapper pathWrapper = (PathWrapper) path;
+    PathWrapper pathWrapper = getPathWrapper(path);
     return new PathIteratorWrapper(pathWrapper, wrappedFileSystem.list(pathWrapper.wrappedPath)) {
       @Override
       public boolean hasNext() throws DirectoryIteratorException {
@@ -186,6 +216,44 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     };
   }
 
+  /**
+   * Random chance of fail on list as well as list iteration.
+   */
+  @Override
+  public DirectoryEntryIterator listEntries(Path path) throws RandomFailIOException, IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getList());
+    PathWrapper pathWrapper = getPathWrapper(path);
+    return new DirectoryEntryIteratorWrapper(pathWrapper, wrappedFileSystem.listEntries(pathWrapper.wrappedPath)) {
+      @Override
+      public boolean hasNext() throws DirectoryIteratorException {
+        try {
+          randomFail(failureProbabilities.getListIterate());
+        } catch (RandomFailIOException e) {
+          throw new DirectoryIteratorException(e);
+        }
+        return super.hasNext();
+      }
+
+      @Override
+      public void close() throws RandomFailIOException, IOException {
+        randomFail(failureProbabilities.getListIterateClose());
+        super.close();
+      }
+    };
+  }
+
+  @Override
+  public FileAttributes readAttributes(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getReadAttributes());
+    return super.readAttributes(path);
+  }
+
   @Override
   public void delete(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -195,6 +263,45 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     super.delete(path);
   }
 
+  /**
+   * Fails each path with the given probability, passing only the remaining paths on to the batch operation.
+   */
+  private <T> List<BatchResult<T>> randomFailAll(
+      Collection<? extends Path> paths,
+      float probability,
+      Function<List<Path>, List<BatchResult<T>>> batch
+  ) {
+    int size = paths.size();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchResult<T>[] results = new BatchResult[size];
+    List<Path> remaining = new ArrayList<>(size);
+    int i = 0;
+    for (Path path : paths) {
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+      try {
+        randomFail(probability);
+        remaining.add(path);
+      } catch (RandomFailIOException e) {
+        results[i] = BatchResult.failure(path, e);
+      }
+      i++;
+    }
+    Iterator<BatchResult<T>> remainingResults = batch.apply(remaining).iterator();
+    for (i = 0; i < size; i++) {
+      if (results[i] == null) {
+        results[i] = remainingResults.next();
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    return randomFailAll(paths, failureProbabilities.getUnlink(), super::deleteAll);
+  }
+
   @Override
   public long size(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -204,6 +311,11 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     return super.size(path);
   }
 
+  @Override
+  public List<BatchResult<Long>> sizeAll(Collection<? extends Path> paths) {
+    return randomFailAll(paths, failureProbabilities.getSize(), super::sizeAll);
+  }
+
   @Override
   public Path createFile(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -213,6 +325,11 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     return super.createFile(path);
   }
 
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    return randomFailAll(paths, failureProbabilities.getCreateFile(), super::createFiles);
+  }
+
   @Override
   public Path createDirectory(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -222,6 +339,15 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     return super.createDirectory(path);
   }
 
+  @Override
+  public Path createDirectories(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getCreateDirectory());
+    return super.createDirectories(path);
+  }
+
   @Override
   public FileLock lock(Path path) throws IOException {
     if (path.getFileSystem() != this) {
@@ -230,4 +356,103 @@ public class RandomFailFileSystem extends FileSystemWrapper {
     randomFail(failureProbabilities.getLock());
     return super.lock(path);
   }
+
+  @Override
+  public FileLock lock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getLock());
+    return super.lock(path, position, size, shared);
+  }
+
+  @Override
+  public FileLock tryLock(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getLock());
+    return super.tryLock(path);
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getLock());
+    return super.tryLock(path, position, size, shared);
+  }
+
+  @Override
+  public FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getLock());
+    return super.tryLock(path, position, size, shared, timeout, unit);
+  }
+
+  /**
+   * Random chance of fail on open as well as each read, write and close.
+   * Since the channel is wrapped, any faster paths of the wrapped channel are not available.
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws RandomFailIOException, IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    randomFail(failureProbabilities.getOpen());
+    SeekableByteChannel wrappedChannel = super.newByteChannel(path, options);
+    return new SeekableByteChannel() {
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+        randomFail(failureProbabilities.getRead());
+        return wrappedChannel.read(dst);
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+        randomFail(failureProbabilities.getWrite());
+        return wrappedChannel.write(src);
+      }
+
+      @Override
+      public long position() throws IOException {
+        return wrappedChannel.position();
+      }
+
+      @Override
+      public SeekableByteChannel position(long newPosition) throws IOException {
+        wrappedChannel.position(newPosition);
+        return this;
+      }
+
+      @Override
+      public long size() throws IOException {
+        return wrappedChannel.size();
+      }
+
+      @Override
+      public SeekableByteChannel truncate(long size) throws IOException {
+        randomFail(failureProbabilities.getWrite());
+        wrappedChannel.truncate(size);
+        return this;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return wrappedChannel.isOpen();
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          randomFail(failureProbabilities.getChannelClose());
+        } finally {
+          wrappedChannel.close();
+        }
+      }
+    };
+  }
 }
@@ -0,0 +1,180 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The byte-range locks held in memory on a single file.
+ *
+ * <p>Any number of shared locks may overlap, while an exclusive lock overlaps no
+ * other lock.  As with {@link java.nio.channels.FileLock}, a range that extends
+ * beyond the end of the file, such as the whole-file size of {@link Long#MAX_VALUE},
+ * covers any later growth of the file.</p>
+ *
+ * <p>Locks are not reentrant.  A thread waiting for a range that it already holds
+ * waits until that lock is released elsewhere.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class RangeLocks {
+
+  /**
+   * A single held range.
+   */
+  static final class Range {
+
+    private final long position;
+    private final long size;
+    private final boolean shared;
+
+    /**
+     * The first position after the range, saturating at {@link Long#MAX_VALUE}.
+     */
+    private final long end;
+
+    private Range(long position, long size, boolean shared) {
+      this.position = position;
+      this.size = size;
+      this.shared = shared;
+      long e = position + size;
+      this.end = (e < 0) ? Long.MAX_VALUE : e;
+    }
+
+    long getPosition() {
+      return position;
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    boolean isShared() {
+      return shared;
+    }
+
+    private boolean conflicts(Range other) {
+      return
+          (!shared || !other.shared)
+              && position < other.end
+              && other.position < end;
+    }
+  }
+
+  /**
+   * Checks the arguments of a lock request, matching {@link java.nio.channels.FileChannel#lock(long, long, boolean)}.
+   *
+   * @throws IllegalArgumentException if the position or size is negative
+   */
+  static void checkRange(long position, long size) throws IllegalArgumentException {
+    if (position < 0) {
+      throw new IllegalArgumentException("position < 0: " + position);
+    }
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0: " + size);
+    }
+  }
+
+  /**
+   * Guarded by this object.
+   */
+  private final List<Range> held = new ArrayList<>();
+
+  private boolean conflicts(Range range) {
+    assert Thread.holdsLock(this);
+    for (Range h : held) {
+      if (h.conflicts(range)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Acquires a range without waiting.
+   *
+   * @return  the range or {@code null} when it conflicts with a range already held
+   */
+  synchronized Range tryLock(long position, long size, boolean shared) {
+    Range range = new Range(position, size, shared);
+    if (conflicts(range)) {
+      return null;
+    }
+    held.add(range);
+    return range;
+  }
+
+  /**
+   * Acquires a range, waiting up to the given time.
+   *
+   * @param  timeoutNanos  The maximum time to wait or {@link Long#MAX_VALUE} to wait forever
+   *
+   * @return  the range or {@code null} when not acquired within the timeout
+   */
+  synchronized Range lock(long position, long size, boolean shared, long timeoutNanos) throws InterruptedException {
+    Range range = new Range(position, size, shared);
+    if (conflicts(range)) {
+      if (timeoutNanos <= 0) {
+        return null;
+      }
+      long deadline = System.nanoTime() + timeoutNanos;
+      do {
+        if (timeoutNanos == Long.MAX_VALUE) {
+          wait();
+        } else {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return null;
+          }
+          wait(remaining / 1000000, (int) (remaining % 1000000));
+        }
+      } while (conflicts(range));
+    }
+    held.add(range);
+    return range;
+  }
+
+  /**
+   * Releases a range, waking any waiting for it.
+   */
+  synchronized void unlock(Range range) {
+    // Removed by identity, since equal ranges may be held together when shared
+    for (int i = 0, size = held.size(); i < size; i++) {
+      if (held.get(i) == range) {
+        held.remove(i);
+        notifyAll();
+        return;
+      }
+    }
+    throw new IllegalStateException("Range not held");
+  }
+
+  /**
+   * Checks if any ranges are held.
+   */
+  synchronized boolean isEmpty() {
+    return held.isEmpty();
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2015, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,7 +23,14 @@
 
 package com.aoapps.io.filesystems;
 
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
 import java.nio.file.ReadOnlyFileSystemException;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Wraps a file system to make it read-only.
@@ -44,6 +51,29 @@ public class ReadOnlyFileSystem extends FileSystemWrapper {
     throw new ReadOnlyFileSystemException();
   }
 
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) throws ReadOnlyFileSystemException {
+    for (Path path : paths) {
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+    }
+    throw new ReadOnlyFileSystemException();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Rejected immediately, without walking the tree.</p>
+   */
+  @Override
+  public void deleteTree(Path path) throws ReadOnlyFileSystemException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    throw new ReadOnlyFileSystemException();
+  }
+
   @Override
   public Path createFile(Path path) throws ReadOnlyFileSystemException {
     if (path.getFileSystem() != this) {
@@ -52,6 +82,16 @@ public class ReadOnlyFileSystem extends FileSystemWrapper {
     throw new ReadOnlyFileSystemException();
   }
 
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) throws ReadOnlyFileSystemException {
+    for (Path path : paths) {
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+    }
+    throw new ReadOnlyFileSystemException();
+  }
+
   @Override
   public Path createDirectory(Path path) throws ReadOnlyFileSystemException {
     if (path.getFileSystem() != this) {
@@ -59,4 +99,41 @@ public class ReadOnlyFileSystem extends FileSystemWrapper {
     }
     throw new ReadOnlyFileSystemException();
   }
+
+  @Override
+  public Path createDirectories(Path path) throws ReadOnlyFileSystemException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    throw new ReadOnlyFileSystemException();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Only opening for reading is allowed.</p>
+   *
+   * @throws ReadOnlyFileSystemException if any option other than {@link StandardOpenOption#READ},
+   *                                     {@link StandardOpenOption#SPARSE}, {@link StandardOpenOption#SYNC},
+   *                                     {@link StandardOpenOption#DSYNC} or {@link LinkOption#NOFOLLOW_LINKS}
+   *                                     is given
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws ReadOnlyFileSystemException, IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    for (OpenOption option : options) {
+      if (
+          option != StandardOpenOption.READ
+              && option != StandardOpenOption.SPARSE
+              && option != StandardOpenOption.SYNC
+              && option != StandardOpenOption.DSYNC
+              && option != LinkOption.NOFOLLOW_LINKS
+      ) {
+        throw new ReadOnlyFileSystemException();
+      }
+    }
+    return super.newByteChannel(path, options);
+  }
 }
@@ -0,0 +1,240 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A read-only view of a {@link FileChannel} from a {@link ChannelCache}, with its own position.
+ * All reads of the shared channel are positional, so any number of views may be used at once.
+ * Closing the view releases its use of the shared channel, which remains open in the cache.
+ *
+ * <p>Interrupting a thread during I/O closes the shared channel, as with any {@link FileChannel}.
+ * The interrupted view is closed and the channel is removed from the cache.  Other views
+ * continue on a newly opened channel.  Since views never share the channels of locks, the
+ * locks of the {@link LockTable} remain held by their own channels.  On some platforms,
+ * closing any channel of a file releases the operating system locks of the process on the
+ * file, which is true of every {@link FileChannel} and is not prevented here.</p>
+ *
+ * <p>Locks are not supported, since they would belong to the shared channel.
+ * Use {@link FileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)} instead.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class SharedReadChannel extends FileChannel {
+
+  /**
+   * An operation on the shared channel.
+   */
+  @FunctionalInterface
+  private static interface ChannelOperation<T> {
+    T apply(FileChannel channel) throws IOException;
+  }
+
+  /**
+   * Guards replacing and releasing the handle.
+   */
+  private final Object handleLock = new Object();
+
+  private volatile ChannelCache.Handle handle;
+
+  /**
+   * Guarded by the view itself.
+   */
+  private long position;
+
+  SharedReadChannel(ChannelCache.Handle handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Performs an operation on the shared channel.  When the shared channel has been closed
+   * by an interrupt of another thread, the operation is retried once on a new channel.
+   *
+   * @throws ClosedByInterruptException when this thread is interrupted, which also closes this view
+   */
+  private <T> T perform(ChannelOperation<T> operation) throws IOException {
+    ensureOpen();
+    ChannelCache.Handle h = handle;
+    boolean retried = false;
+    while (true) {
+      try {
+        return operation.apply(h.getChannel());
+      } catch (ClosedByInterruptException e) {
+        h.invalidate();
+        // Closed by the interrupt, like any other channel
+        close();
+        throw e;
+      } catch (ClosedChannelException e) {
+        if (retried || !isOpen()) {
+          throw e;
+        }
+        retried = true;
+        h = replaceHandle(h);
+      }
+    }
+  }
+
+  /**
+   * Replaces a closed shared channel with a new one, unless already replaced.
+   */
+  private ChannelCache.Handle replaceHandle(ChannelCache.Handle closed) throws IOException {
+    synchronized (handleLock) {
+      ensureOpen();
+      ChannelCache.Handle current = handle;
+      if (current == closed) {
+        closed.invalidate();
+        current = closed.reacquire();
+        handle = current;
+        closed.release();
+      }
+      return current;
+    }
+  }
+
+  @Override
+  public synchronized int read(ByteBuffer dst) throws IOException {
+    int count = perform(channel -> channel.read(dst, position));
+    if (count > 0) {
+      position += count;
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+    ensureOpen();
+    long total = 0;
+    for (int i = offset; i < offset + length; i++) {
+      ByteBuffer dst = dsts[i];
+      while (dst.hasRemaining()) {
+        int count = perform(channel -> channel.read(dst, position));
+        if (count <= 0) {
+          return (total == 0 && count == -1) ? -1 : total;
+        }
+        position += count;
+        total += count;
+      }
+    }
+    return total;
+  }
+
+  @Override
+  public int write(ByteBuffer src) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public long write(ByteBuffer[] srcs, int offset, int length) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public synchronized long position() throws IOException {
+    ensureOpen();
+    return position;
+  }
+
+  @Override
+  public synchronized SharedReadChannel position(long newPosition) throws IOException {
+    if (newPosition < 0) {
+      throw new IllegalArgumentException("newPosition < 0: " + newPosition);
+    }
+    ensureOpen();
+    position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size() throws IOException {
+    return perform(FileChannel::size);
+  }
+
+  @Override
+  public FileChannel truncate(long size) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public void force(boolean metaData) throws IOException {
+    ensureOpen();
+    // Nothing written
+  }
+
+  @Override
+  public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+    return perform(channel -> channel.transferTo(position, count, target));
+  }
+
+  @Override
+  public long transferFrom(ReadableByteChannel src, long position, long count) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    return perform(channel -> channel.read(dst, position));
+  }
+
+  @Override
+  public int write(ByteBuffer src, long position) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+    return perform(channel -> channel.map(mode, position, size));
+  }
+
+  @Override
+  public java.nio.channels.FileLock lock(long position, long size, boolean shared) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public java.nio.channels.FileLock tryLock(long position, long size, boolean shared) {
+    throw new UnsupportedOperationException();
+  }
+
+  private void ensureOpen() throws IOException {
+    if (!isOpen()) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  @Override
+  protected void implCloseChannel() {
+    synchronized (handleLock) {
+      handle.release();
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2015, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,48 +23,208 @@
 
 package com.aoapps.io.filesystems;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.NotDirectoryException;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import org.apache.commons.lang3.NotImplementedException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A temporary file system stored in the Java heap.
+ * A temporary file system stored in memory.  The directory structure and file
+ * attributes are kept in the Java heap, while file contents are kept off-heap.
+ *
+ * <p>Lookups and listings, such as {@link #readAttributes(com.aoapps.io.filesystems.Path)} and
+ * {@link #list(com.aoapps.io.filesystems.Path)}, never lock.  Each directory is
+ * its own lock, held only while its children are added or removed.  Operations
+ * on different directories never contend.  When two directories must be locked,
+ * such as deleting an empty directory, the parent is always locked before the child.</p>
+ *
+ * <p>The contents of regular files are stored in chunks of direct memory outside the
+ * Java heap, so large amounts of data do not add to garbage collection.  Each chunk is
+ * {@linkplain #getChunkSize() a fixed size}, {@linkplain #DEFAULT_CHUNK_SIZE 64 KiB by default}, and
+ * is only allocated when written, so sparse files do not use memory for their holes.  Direct
+ * memory is limited by the JVM, not the heap size, and is released only once the chunks of a
+ * deleted or truncated file are garbage collected.</p>
+ *
+ * <p>The total of all chunks may be capped by {@link #getMaxMemory()}.  A write that would
+ * allocate beyond the cap fails with a {@link FileSystemException} of
+ * "Memory limit exceeded", and {@link #getMemoryUsed()} reports the current total.</p>
  *
  * @author  AO Industries, Inc.
  */
 public class TempFileSystem implements FileSystem {
 
   /**
-   * TODO.
+   * An object stored in the file system.
    */
   protected abstract static class FileSystemObject {
-    // TODO: Implement
+
+    /**
+     * The time last modified in milliseconds since the Epoch.
+     */
+    protected volatile long lastModified = System.currentTimeMillis();
+
+    /**
+     * The ranges held by {@link TempFileSystem#lock(com.aoapps.io.filesystems.Path, long, long, boolean)}.
+     */
+    private final RangeLocks locks = new RangeLocks();
+
+    /**
+     * Gets the current attributes.
+     */
+    protected abstract FileAttributes getAttributes();
   }
 
+  /**
+   * A directory, which is also the lock for changes to its children.
+   */
   private static class Directory extends FileSystemObject {
-    private final LinkedList<String> files = new LinkedList<>();
 
-    private String[] list() {
-      return files.toArray(new String[files.size()]);
+    /**
+     * The names of the children, only changed while holding the lock on the directory.
+     * Lookups and iteration do not lock, and iteration does not copy.
+     */
+    private final Set<String> files = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Set once the directory is deleted, only changed while holding the lock on the directory.
+     * No children may be added once deleted.
+     */
+    private volatile boolean deleted;
+
+    @Override
+    protected FileAttributes getAttributes() {
+      return new FileAttributes(FileAttributes.Type.DIRECTORY, 0, lastModified);
     }
   }
 
+  /**
+   * A regular file, with its contents stored outside the Java heap.
+   */
   private static class RegularFile extends FileSystemObject {
-    // TODO: Implement
+
+    private final ChunkedContent content;
+
+    private RegularFile(ChunkedContent content) {
+      this.content = content;
+    }
+
+    @Override
+    protected FileAttributes getAttributes() {
+      return new FileAttributes(FileAttributes.Type.REGULAR_FILE, content.size(), lastModified);
+    }
   }
 
-  protected final Map<Path, FileSystemObject> files = new HashMap<>();
+  /**
+   * The default size of each chunk of file content.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * All objects in the file system.  Children are only added or removed while
+   * holding the lock of their parent directory.
+   */
+  protected final Map<Path, FileSystemObject> files = new ConcurrentHashMap<>();
+
+  private final int chunkSize;
+  private final long maxMemory;
+  private final AtomicLong memoryUsed = new AtomicLong();
 
   /**
    * Creates a new temp filesystem.
+   *
+   * @param  chunkSize  The size of each chunk of file content, must be a power of two.
+   *                    Smaller chunks waste less memory on small or sparse files, while
+   *                    larger chunks reduce overhead on large files.
+   * @param  maxMemory  The maximum number of bytes of file content, including any unused
+   *                    space at the end of each chunk.
+   */
+  public TempFileSystem(int chunkSize, long maxMemory) {
+    if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+      throw new IllegalArgumentException("chunkSize is not a power of two: " + chunkSize);
+    }
+    if (maxMemory < 0) {
+      throw new IllegalArgumentException("maxMemory < 0: " + maxMemory);
+    }
+    this.chunkSize = chunkSize;
+    this.maxMemory = maxMemory;
+    files.put(new Path(this), new Directory());
+  }
+
+  /**
+   * Creates a new temp filesystem, using the {@linkplain #DEFAULT_CHUNK_SIZE default chunk size}
+   * and no limit on memory.
    */
   public TempFileSystem() {
-    synchronized (files) {
-      files.put(new Path(this), new Directory());
+    this(DEFAULT_CHUNK_SIZE, Long.MAX_VALUE);
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * Gets the number of bytes currently allocated for file content.
+   */
+  public long getMemoryUsed() {
+    return memoryUsed.get();
+  }
+
+  /**
+   * Allocates a new, zeroed chunk of direct memory.
+   *
+   * @throws FileSystemException when the memory limit would be exceeded
+   */
+  ByteBuffer allocateChunk() throws FileSystemException {
+    long used;
+    do {
+      used = memoryUsed.get();
+      if (used > maxMemory - chunkSize) {
+        throw new FileSystemException(null, null, "Memory limit exceeded: " + maxMemory);
+      }
+    } while (!memoryUsed.compareAndSet(used, used + chunkSize));
+    try {
+      return ByteBuffer.allocateDirect(chunkSize);
+    } catch (OutOfMemoryError e) {
+      memoryUsed.addAndGet(-chunkSize);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the memory of chunks no longer used.  The direct memory itself is
+   * released once the chunks are garbage collected.
+   */
+  void freeChunks(int count) {
+    if (count != 0) {
+      memoryUsed.addAndGet(-(long) count * chunkSize);
     }
   }
 
@@ -79,35 +239,91 @@ public class TempFileSystem implements FileSystem {
     // All allowed
   }
 
+  private FileSystemObject getFile(Path path) throws NoSuchFileException {
+    FileSystemObject file = files.get(path);
+    if (file == null) {
+      throw new NoSuchFileException(path.toString());
+    }
+    return file;
+  }
+
+  private Directory getDirectory(Path path) throws NoSuchFileException, NotDirectoryException {
+    FileSystemObject file = getFile(path);
+    if (!(file instanceof Directory)) {
+      throw new NotDirectoryException(path.toString());
+    }
+    return (Directory) file;
+  }
+
   @Override
   public PathIterator list(Path path) throws NoSuchFileException, NotDirectoryException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    String[] list;
-    synchronized (files) {
-      FileSystemObject file = files.get(path);
-      if (file == null) {
-        throw new NoSuchFileException(path.toString());
-      }
-      if (!(file instanceof Directory)) {
-        throw new NotDirectoryException(path.toString());
-      }
-      list = ((Directory) file).list();
+    Directory directory = getDirectory(path);
+    if (directory.deleted) {
+      throw new NoSuchFileException(path.toString());
     }
+    Iterator<String> names = directory.files.iterator();
     return new PathIterator() {
-      private int next = 0;
       @Override
       public boolean hasNext() {
-        return next < list.length;
+        return names.hasNext();
       }
 
       @Override
       public Path next() throws NoSuchElementException {
-        if (next >= list.length) {
+        // Names were validated when created
+        return new Path(path, names.next(), true);
+      }
+
+      @Override
+      public void close() {
+        // Nothing to do
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The attributes of each child are read as it is reached.  Children removed
+   * during iteration are skipped.</p>
+   */
+  @Override
+  public DirectoryEntryIterator listEntries(Path path) throws NoSuchFileException, NotDirectoryException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Directory directory = getDirectory(path);
+    if (directory.deleted) {
+      throw new NoSuchFileException(path.toString());
+    }
+    Iterator<String> names = directory.files.iterator();
+    return new DirectoryEntryIterator() {
+      private DirectoryEntry next;
+
+      @Override
+      public boolean hasNext() {
+        while (next == null && names.hasNext()) {
+          // Names were validated when created
+          Path child = new Path(path, names.next(), true);
+          FileSystemObject file = files.get(child);
+          if (file != null) {
+            next = new DirectoryEntry(child, file.getAttributes());
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public DirectoryEntry next() throws NoSuchElementException {
+        if (!hasNext()) {
           throw new NoSuchElementException();
         }
-        return new Path(path, list[next++]);
+        DirectoryEntry entry = next;
+        next = null;
+        return entry;
       }
 
       @Override
@@ -118,42 +334,539 @@ public class TempFileSystem implements FileSystem {
   }
 
   @Override
-  public void delete(Path path) {
+  public FileAttributes readAttributes(Path path) throws NoSuchFileException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    return getFile(path).getAttributes();
+  }
+
+  @Override
+  public void delete(Path path) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    Path parent = path.getParent();
+    if (parent == null) {
+      throw new FileSystemException(path.toString(), null, "The root may not be deleted");
+    }
+    FileSystemObject parentFile = files.get(parent);
+    if (!(parentFile instanceof Directory)) {
+      throw new NoSuchFileException(path.toString());
+    }
+    Directory parentDirectory = (Directory) parentFile;
+    synchronized (parentDirectory) {
+      if (!isLive(parent, parentDirectory)) {
+        // Deleted, and possibly recreated, since looked up
+        throw new NoSuchFileException(path.toString());
+      }
+      FileSystemObject file = getFile(path);
+      if (file instanceof Directory) {
+        Directory directory = (Directory) file;
+        synchronized (directory) {
+          if (!directory.files.isEmpty()) {
+            throw new DirectoryNotEmptyException(path.toString());
+          }
+          directory.deleted = true;
+        }
+      }
+      files.remove(path);
+      parentDirectory.files.remove(path.getName());
+      parentDirectory.lastModified = System.currentTimeMillis();
+      if (file instanceof RegularFile) {
+        ((RegularFile) file).content.release();
+      }
+    }
+  }
+
+  /**
+   * Checks that a directory, looked up without locking, is still in the file system at the
+   * given path.  Must be holding the lock on the directory, after which it cannot change.
+   */
+  private boolean isLive(Path path, Directory directory) {
+    assert Thread.holdsLock(directory);
+    return !directory.deleted && files.get(path) == directory;
+  }
+
+  /**
+   * An operation on a single path.
+   */
+  @FunctionalInterface
+  private static interface PathOperation<T> {
+    T apply(Path path) throws IOException;
+  }
+
+  /**
+   * Performs a batch operation, grouped by parent directory, locking each directory only once.
+   */
+  private <T> List<BatchResult<T>> batch(Collection<? extends Path> paths, PathOperation<T> operation) {
+    Path[] array = paths.toArray(new Path[paths.size()]);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchResult<T>[] results = new BatchResult[array.length];
+    // Group by parent, preserving the order of first appearance
+    Map<Path, List<Integer>> byParent = new LinkedHashMap<>();
+    for (int i = 0; i < array.length; i++) {
+      Path path = array[i];
+      if (path.getFileSystem() != this) {
+        throw new IllegalArgumentException();
+      }
+      byParent.computeIfAbsent(path.getParent(), p -> new ArrayList<>()).add(i);
+    }
+    for (Map.Entry<Path, List<Integer>> group : byParent.entrySet()) {
+      Path parent = group.getKey();
+      FileSystemObject parentFile = (parent == null) ? null : files.get(parent);
+      if (parentFile instanceof Directory) {
+        Directory parentDirectory = (Directory) parentFile;
+        // Re-entered by each operation
+        synchronized (parentDirectory) {
+          if (isLive(parent, parentDirectory)) {
+            for (int i : group.getValue()) {
+              results[i] = perform(array[i], operation);
+            }
+            continue;
+          }
+        }
+      }
+      // Not a directory, or replaced since looked up: each operation looks up the parent itself
+      for (int i : group.getValue()) {
+        results[i] = perform(array[i], operation);
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  private static <T> BatchResult<T> perform(Path path, PathOperation<T> operation) {
+    try {
+      return BatchResult.success(path, operation.apply(path));
+    } catch (IOException e) {
+      return BatchResult.failure(path, e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Paths are grouped by parent directory, which is locked once per batch.</p>
+   */
+  @Override
+  public List<BatchResult<Void>> deleteAll(Collection<? extends Path> paths) {
+    return batch(paths, path -> {
+      delete(path);
+      return null;
+    });
+  }
+
+  @Override
+  public long size(Path path) throws NoSuchFileException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    throw new NotImplementedException("TODO");
+    return getFile(path).getAttributes().getSize();
+  }
+
+  /**
+   * Adds a new child to its parent directory.
+   *
+   * @throws FileAlreadyExistsException if the path is the root or already exists
+   * @throws NoSuchFileException if the parent does not exist
+   * @throws NotDirectoryException if the parent is not a directory
+   */
+  private void add(Path path, FileSystemObject child) throws FileAlreadyExistsException, NoSuchFileException, NotDirectoryException {
+    Path parent = path.getParent();
+    if (parent == null) {
+      throw new FileAlreadyExistsException(path.toString());
+    }
+    Directory parentDirectory = getDirectory(parent);
+    synchronized (parentDirectory) {
+      if (!isLive(parent, parentDirectory)) {
+        throw new NoSuchFileException(parent.toString());
+      }
+      if (files.putIfAbsent(path, child) != null) {
+        throw new FileAlreadyExistsException(path.toString());
+      }
+      parentDirectory.files.add(path.getName());
+      parentDirectory.lastModified = child.lastModified;
+    }
+  }
+
+  @Override
+  public Path createFile(Path path) throws FileAlreadyExistsException, NoSuchFileException, NotDirectoryException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    add(path, new RegularFile(new ChunkedContent(this)));
+    return path;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>{@link StandardOpenOption#SPARSE} is implied, while {@link StandardOpenOption#SYNC},
+   * {@link StandardOpenOption#DSYNC} and {@link LinkOption#NOFOLLOW_LINKS} have no effect.
+   * Each channel has its own position, and any number of channels may be open on the
+   * same file.  A channel remains usable after its file is deleted.</p>
+   *
+   * @throws FileSystemException if the path is not a regular file
+   * @throws UnsupportedOperationException if an unsupported option is given, including
+   *                                       {@link StandardOpenOption#DELETE_ON_CLOSE}
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, OpenOption... options) throws IOException {
+    if (path.getFileSystem() != this) {
+      throw new IllegalArgumentException();
+    }
+    boolean read = false;
+    boolean write = false;
+    boolean append = false;
+    boolean truncate = false;
+    boolean create = false;
+    boolean createNew = false;
+    for (OpenOption option : options) {
+      if (option == StandardOpenOption.READ) {
+        read = true;
+      } else if (option == StandardOpenOption.WRITE) {
+        write = true;
+      } else if (option == StandardOpenOption.APPEND) {
+        write = true;
+        append = true;
+      } else if (option == StandardOpenOption.TRUNCATE_EXISTING) {
+        truncate = true;
+      } else if (option == StandardOpenOption.CREATE) {
+        create = true;
+      } else if (option == StandardOpenOption.CREATE_NEW) {
+        createNew = true;
+      } else if (
+          option != StandardOpenOption.SPARSE
+              && option != StandardOpenOption.SYNC
+              && option != StandardOpenOption.DSYNC
+              && option != LinkOption.NOFOLLOW_LINKS
+      ) {
+        throw new UnsupportedOperationException(String.valueOf(option));
+      }
+    }
+    if (read && append) {
+      throw new IllegalArgumentException("READ + APPEND not allowed");
+    }
+    if (append && truncate) {
+      throw new IllegalArgumentException("APPEND + TRUNCATE_EXISTING not allowed");
+    }
+    RegularFile regularFile;
+    while (true) {
+      if (write && createNew) {
+        createFile(path);
+      }
+      FileSystemObject file = files.get(path);
+      if (file == null) {
+        if (write && create) {
+          try {
+            createFile(path);
+          } catch (FileAlreadyExistsException e) {
+            // Created concurrently
+          }
+          continue;
+        }
+        throw new NoSuchFileException(path.toString());
+      }
+      if (!(file instanceof RegularFile)) {
+        throw new FileSystemException(path.toString(), null, "Not a regular file");
+      }
+      regularFile = (RegularFile) file;
+      if (regularFile.content.retain()) {
+        break;
+      }
+      // Deleted concurrently
+      if (!write || !(create || createNew)) {
+        throw new NoSuchFileException(path.toString());
+      }
+    }
+    if (write && truncate && regularFile.content.size() != 0) {
+      regularFile.content.truncate(0);
+      regularFile.lastModified = System.currentTimeMillis();
+    }
+    return new ContentChannel(regularFile, read || !write, write, append);
+  }
+
+  /**
+   * A channel to the contents of a regular file.
+   */
+  private static final class ContentChannel implements SeekableByteChannel {
+
+    private final RegularFile file;
+    private final boolean readable;
+    private final boolean writable;
+    private final boolean append;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    /**
+     * Guarded by the channel itself.
+     */
+    private long position;
+
+    private ContentChannel(RegularFile file, boolean readable, boolean writable, boolean append) {
+      this.file = file;
+      this.readable = readable;
+      this.writable = writable;
+      this.append = append;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+      if (!open.get()) {
+        throw new ClosedChannelException();
+      }
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+      checkOpen();
+      if (!readable) {
+        throw new NonReadableChannelException();
+      }
+      int count = file.content.read(dst, position);
+      if (count > 0) {
+        position += count;
+      }
+      return count;
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer src) throws IOException {
+      checkOpen();
+      if (!writable) {
+        throw new NonWritableChannelException();
+      }
+      int start = src.position();
+      try {
+        position = file.content.write(src, append ? -1 : position);
+      } finally {
+        if (src.position() != start) {
+          file.lastModified = System.currentTimeMillis();
+        }
+      }
+      return src.position() - start;
+    }
+
+    @Override
+    public synchronized long position() throws ClosedChannelException {
+      checkOpen();
+      return position;
+    }
+
+    @Override
+    public synchronized ContentChannel position(long newPosition) throws ClosedChannelException {
+      if (newPosition < 0) {
+        throw new IllegalArgumentException("newPosition < 0: " + newPosition);
+      }
+      checkOpen();
+      position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() throws ClosedChannelException {
+      checkOpen();
+      return file.content.size();
+    }
+
+    @Override
+    public synchronized ContentChannel truncate(long size) throws ClosedChannelException {
+      if (size < 0) {
+        throw new IllegalArgumentException("size < 0: " + size);
+      }
+      checkOpen();
+      if (!writable) {
+        throw new NonWritableChannelException();
+      }
+      if (size < file.content.size()) {
+        file.content.truncate(size);
+        file.lastModified = System.currentTimeMillis();
+      }
+      if (position > size) {
+        position = size;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open.get();
+    }
+
+    @Override
+    public void close() {
+      if (open.compareAndSet(true, false)) {
+        file.content.release();
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Paths are grouped by parent directory, which is locked once per batch.</p>
+   */
+  @Override
+  public List<BatchResult<Path>> createFiles(Collection<? extends Path> paths) {
+    return batch(paths, this::createFile);
   }
 
   @Override
-  public long size(Path path) {
+  public Path createDirectory(Path path) throws FileAlreadyExistsException, NoSuchFileException, NotDirectoryException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    throw new NotImplementedException("TODO");
+    add(path, new Directory());
+    return path;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The closest existing parent is found without locking, then each missing
+   * directory is created below it, one level at a time.  There is no single lock
+   * over the whole chain: each directory is added while holding only the lock of
+   * its own parent, the same as {@link #createDirectory(com.aoapps.io.filesystems.Path)}.
+   * Another may therefore see, or add to, the upper directories before the rest
+   * of the chain exists.</p>
+   */
   @Override
-  public Path createFile(Path path) {
+  public Path createDirectories(Path path) throws FileAlreadyExistsException, NoSuchFileException, NotDirectoryException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    throw new NotImplementedException("TODO");
+    FileSystemObject existing = files.get(path);
+    if (existing != null) {
+      if (!(existing instanceof Directory)) {
+        throw new FileAlreadyExistsException(path.toString());
+      }
+      return path;
+    }
+    // Find the closest existing parent, the root always exists
+    Path[] missing = new Path[path.getDepth()];
+    int count = 0;
+    missing[count++] = path;
+    Path p = path.getParent();
+    FileSystemObject ancestor;
+    while ((ancestor = files.get(p)) == null) {
+      missing[count++] = p;
+      p = p.getParent();
+    }
+    if (!(ancestor instanceof Directory)) {
+      throw new NotDirectoryException(p.toString());
+    }
+    for (int i = count - 1; i >= 0; i--) {
+      Path dir = missing[i];
+      try {
+        add(dir, new Directory());
+      } catch (FileAlreadyExistsException e) {
+        // Created concurrently
+        if (!(files.get(dir) instanceof Directory)) {
+          throw e;
+        }
+      }
+    }
+    return path;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Locks are held in memory and apply only within this file system.  A lock
+   * remains valid when its file is deleted.</p>
+   *
+   * @throws FileLockInterruptionException if interrupted while waiting for the lock
+   */
+  @Override
+  public FileLock lock(Path path) throws NoSuchFileException, FileLockInterruptionException {
+    return lock(path, 0, Long.MAX_VALUE, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Locks are held in memory and apply only within this file system.  A lock
+   * remains valid when its file is deleted.</p>
+   *
+   * @throws FileLockInterruptionException if interrupted while waiting for the lock
+   */
+  @Override
+  public FileLock lock(Path path, long position, long size, boolean shared) throws NoSuchFileException, FileLockInterruptionException {
+    return tryLock(path, position, size, shared, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
   }
 
   @Override
-  public Path createDirectory(Path path) {
+  public FileLock tryLock(Path path, long position, long size, boolean shared) throws NoSuchFileException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    throw new NotImplementedException("TODO");
+    RangeLocks.checkRange(position, size);
+    RangeLocks locks = getFile(path).locks;
+    RangeLocks.Range range = locks.tryLock(position, size, shared);
+    return (range == null) ? null : new TempFileLock(locks, range);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Waits directly for the lock to be released, without polling.</p>
+   */
   @Override
-  public FileLock lock(Path path) {
+  public FileLock tryLock(Path path, long position, long size, boolean shared, long timeout, TimeUnit unit)
+      throws NoSuchFileException, FileLockInterruptionException {
     if (path.getFileSystem() != this) {
       throw new IllegalArgumentException();
     }
-    throw new NotImplementedException("TODO");
+    RangeLocks.checkRange(position, size);
+    RangeLocks locks = getFile(path).locks;
+    RangeLocks.Range range;
+    try {
+      range = locks.lock(position, size, shared, unit.toNanos(timeout));
+    } catch (InterruptedException e) {
+      // Restore the interrupted status
+      Thread.currentThread().interrupt();
+      throw new FileLockInterruptionException();
+    }
+    return (range == null) ? null : new TempFileLock(locks, range);
+  }
+
+  /**
+   * A lock held in memory on a range of a file.
+   */
+  private static final class TempFileLock implements FileLock {
+
+    private final RangeLocks locks;
+    private final RangeLocks.Range range;
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+
+    private TempFileLock(RangeLocks locks, RangeLocks.Range range) {
+      this.locks = locks;
+      this.range = range;
+    }
+
+    @Override
+    public boolean isValid() {
+      return valid.get();
+    }
+
+    @Override
+    public long position() {
+      return range.getPosition();
+    }
+
+    @Override
+    public long size() {
+      return range.getSize();
+    }
+
+    @Override
+    public boolean isShared() {
+      return range.isShared();
+    }
+
+    @Override
+    public void close() {
+      if (valid.compareAndSet(true, false)) {
+        locks.unlock(range);
+      }
+    }
   }
 }
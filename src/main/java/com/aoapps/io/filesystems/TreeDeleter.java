@@ -0,0 +1,144 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes entire trees in parallel, using a {@link FileTreeWalker}.
+ * Files are deleted concurrently in batches, and each directory is deleted
+ * once all of its descendants are gone.
+ *
+ * <p>Deletion continues past failures.  A directory is not attempted when anything below
+ * it could not be deleted, since it cannot be empty.  All failures are reported together
+ * once the rest of the tree has been deleted.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TreeDeleter {
+
+  /**
+   * The maximum number of individual failures added as suppressed exceptions.
+   * Any more are only counted.
+   */
+  private static final int MAX_SUPPRESSED = 100;
+
+  private final FileTreeWalker walker;
+
+  /**
+   * Creates a deleter that uses the given walker.
+   */
+  public TreeDeleter(FileTreeWalker walker) {
+    this.walker = walker;
+  }
+
+  /**
+   * Creates a deleter that uses a {@linkplain FileTreeWalker#FileTreeWalker() default walker}.
+   */
+  public TreeDeleter() {
+    this(new FileTreeWalker());
+  }
+
+  public FileTreeWalker getWalker() {
+    return walker;
+  }
+
+  /**
+   * Recursively deletes the file system object at the given path.
+   * Symbolic links are deleted and not followed.
+   * Objects that are removed by others during the deletion are not considered failures.
+   *
+   * @throws NoSuchFileException if the path does not exist
+   * @throws IOException when a single object could not be deleted, that exception is thrown.  When more than one
+   *                     could not be deleted, a new exception is thrown with the individual failures suppressed.
+   */
+  public void deleteTree(Path path) throws IOException {
+    final FileSystem fileSystem = path.getFileSystem();
+    final Set<Path> incomplete = ConcurrentHashMap.newKeySet();
+    final ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+    final AtomicInteger failureCount = new AtomicInteger();
+    walker.walk(path, new FileTreeWalker.Visitor() {
+      /**
+       * Records a failure and marks all its ancestors, up to the starting path, as incomplete.
+       */
+      private void fail(Path failed, IOException e) {
+        if (failureCount.getAndIncrement() < MAX_SUPPRESSED) {
+          failures.add(e);
+        }
+        Path p = failed;
+        while (!p.equals(path) && (p = p.getParent()) != null && incomplete.add(p)) {
+          // Continue until reaching an already-marked ancestor
+        }
+      }
+
+      private void delete(Path p) {
+        try {
+          fileSystem.delete(p);
+        } catch (NoSuchFileException e) {
+          // Already removed
+        } catch (IOException e) {
+          fail(p, e);
+        }
+      }
+
+      @Override
+      public void visitFile(DirectoryEntry file) {
+        delete(file.getPath());
+      }
+
+      @Override
+      public void visitDirectoryFailed(DirectoryEntry directory, IOException e) {
+        if (!(e instanceof NoSuchFileException)) {
+          Path dir = directory.getPath();
+          incomplete.add(dir);
+          fail(dir, e);
+        }
+      }
+
+      @Override
+      public void postVisitDirectory(DirectoryEntry directory) {
+        Path dir = directory.getPath();
+        if (!incomplete.contains(dir)) {
+          delete(dir);
+        }
+      }
+    });
+    int count = failureCount.get();
+    if (count == 1) {
+      throw failures.remove();
+    }
+    if (count > 1) {
+      IOException e = new IOException("Unable to delete " + count + " objects in tree: " + path);
+      for (IOException failure : failures) {
+        e.addSuppressed(failure);
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests {@link AsyncFileSystem}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class AsyncFileSystemTest {
+
+  /**
+   * Test of the maximum in-flight operations.
+   */
+  @Test
+  public void testMaxInFlight() throws Exception {
+    System.out.println("maxInFlight");
+    final int maxInFlight = 3;
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    TempFileSystem slowfs = new TempFileSystem() {
+      @Override
+      public long size(Path path) {
+        int current = running.incrementAndGet();
+        maxRunning.accumulateAndGet(current, Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+        return path.toString().length();
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(maxInFlight * 4);
+    try {
+      AsyncFileSystem async = new AsyncFileSystem(slowfs, executor, maxInFlight);
+      List<CompletableFuture<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(async.size(slowfs.parsePath("/file" + i)));
+      }
+      for (int i = 0; i < 100; i++) {
+        assertEquals(("/file" + i).length(), (long) futures.get(i).get());
+      }
+      assertTrue(maxRunning.get() <= maxInFlight);
+      assertEquals(0, async.getInFlight());
+      assertEquals(0, async.getQueued());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Failures complete the future exceptionally.
+   */
+  @Test
+  public void testFailure() throws Exception {
+    System.out.println("failure");
+    TempFileSystem tempfs = new TempFileSystem();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      AsyncFileSystem async = new AsyncFileSystem(tempfs, executor);
+      try {
+        async.readAttributes(tempfs.parsePath("/missing")).get();
+        throw new AssertionError("ExecutionException expected");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof NoSuchFileException);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
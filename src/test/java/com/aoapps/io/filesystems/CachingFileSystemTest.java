@@ -0,0 +1,177 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link CachingFileSystem}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CachingFileSystemTest {
+
+  private final TempFileSystem tempfs = new TempFileSystem();
+  private final InstrumentedFileSystem instrumented = new InstrumentedFileSystem(tempfs);
+  private final CachingFileSystem fs = new CachingFileSystem(instrumented, 100, 1, TimeUnit.HOURS);
+
+  private long getWrappedCount(InstrumentedFileSystem.Operation operation) {
+    return instrumented.getSnapshot(operation).getCount();
+  }
+
+  private static List<String> list(FileSystem fs, Path dir) throws IOException {
+    List<String> names = new ArrayList<>();
+    try (PathIterator iter = fs.list(dir)) {
+      while (iter.hasNext()) {
+        Path child = iter.next();
+        assertEquals(dir, child.getParent());
+        names.add(child.getName());
+      }
+    }
+    names.sort(null);
+    return names;
+  }
+
+  private static boolean exists(FileSystem fs, Path path) throws IOException {
+    try {
+      fs.readAttributes(path);
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Test of size method, of class CachingFileSystem.
+   */
+  @Test
+  public void testSize() throws IOException {
+    System.out.println("size");
+    Path file = fs.createFile(fs.parsePath("/file"));
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0, fs.size(file));
+    }
+    assertEquals(1, getWrappedCount(InstrumentedFileSystem.Operation.SIZE));
+    assertEquals(9, fs.getHits());
+    // Invalidated by writes
+    try (SeekableByteChannel channel = fs.openWrite(file)) {
+      channel.write(ByteBuffer.allocate(10));
+    }
+    assertEquals(10, fs.size(file));
+    assertEquals(2, getWrappedCount(InstrumentedFileSystem.Operation.SIZE));
+    // Batch uses the cache
+    Path missing = fs.parsePath("/missing");
+    List<BatchResult<Long>> results = fs.sizeAll(Arrays.asList(file, missing));
+    assertEquals(Long.valueOf(10), results.get(0).get());
+    assertTrue(results.get(1).getFailure() instanceof NoSuchFileException);
+    assertEquals(3, getWrappedCount(InstrumentedFileSystem.Operation.SIZE));
+    try {
+      fs.size(missing);
+      throw new AssertionError("NoSuchFileException expected");
+    } catch (NoSuchFileException e) {
+      // Expected
+    }
+    assertEquals(3, getWrappedCount(InstrumentedFileSystem.Operation.SIZE));
+    // Invalidated by create
+    fs.createFile(missing);
+    assertEquals(0, fs.size(missing));
+  }
+
+  /**
+   * Test of list method, of class CachingFileSystem.
+   */
+  @Test
+  public void testList() throws IOException {
+    System.out.println("list");
+    Path dir = fs.createDirectory(fs.parsePath("/dir"));
+    fs.createFile(new Path(dir, "a"));
+    assertEquals(Arrays.asList("a"), list(fs, dir));
+    assertEquals(Arrays.asList("a"), list(fs, dir));
+    assertEquals(1, getWrappedCount(InstrumentedFileSystem.Operation.LIST));
+    // Invalidated by changes through the wrapper
+    fs.createDirectory(new Path(dir, "b"));
+    assertEquals(Arrays.asList("a", "b"), list(fs, dir));
+    fs.delete(new Path(dir, "a"));
+    assertEquals(Arrays.asList("b"), list(fs, dir));
+    assertEquals(3, getWrappedCount(InstrumentedFileSystem.Operation.LIST));
+    // Changes by other means are seen once invalidated
+    tempfs.createFile(tempfs.parsePath("/dir/c"));
+    assertEquals(Arrays.asList("b"), list(fs, dir));
+    fs.invalidateAll();
+    assertEquals(Arrays.asList("b", "c"), list(fs, dir));
+  }
+
+  /**
+   * Test of existence through readAttributes, of class CachingFileSystem.
+   */
+  @Test
+  public void testExists() throws IOException {
+    System.out.println("exists");
+    Path dir = fs.parsePath("/a/b/c");
+    assertFalse(exists(fs, dir));
+    assertFalse(exists(fs, dir.getParent()));
+    fs.createDirectories(dir);
+    assertTrue(exists(fs, dir));
+    assertTrue(exists(fs, dir.getParent()));
+    assertTrue(fs.readAttributes(dir).isDirectory());
+    fs.deleteAll(Arrays.asList(dir));
+    assertFalse(exists(fs, dir));
+    assertTrue(exists(fs, dir.getParent()));
+  }
+
+  /**
+   * Test of expiration and eviction, of class ExpiringCache.
+   */
+  @Test
+  public void testExpiringCache() throws InterruptedException {
+    System.out.println("expiringCache");
+    ExpiringCache<Integer, String> cache = new ExpiringCache<>(4, TimeUnit.MILLISECONDS.toNanos(50));
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, Integer.toString(i), cache.getStamp(i));
+    }
+    assertTrue(cache.size() <= 4);
+    // Not added after a concurrent invalidation
+    long stamp = cache.getStamp(1000);
+    cache.invalidate(1000);
+    cache.put(1000, "1000", stamp);
+    assertEquals(null, cache.get(1000));
+    cache.put(1000, "1000", cache.getStamp(1000));
+    assertEquals("1000", cache.get(1000));
+    Thread.sleep(100);
+    assertEquals(null, cache.get(1000));
+  }
+}
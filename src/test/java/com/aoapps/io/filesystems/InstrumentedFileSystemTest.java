@@ -0,0 +1,174 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.Test;
+
+/**
+ * Tests {@link InstrumentedFileSystem}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class InstrumentedFileSystemTest {
+
+  private final InstrumentedFileSystem fs = new InstrumentedFileSystem(new TempFileSystem());
+
+  /**
+   * Test of recording operations, of class InstrumentedFileSystem.
+   */
+  @Test
+  public void testRecord() throws IOException {
+    System.out.println("record");
+    Path dir = fs.createDirectory(fs.parsePath("/dir"));
+    Path file = fs.createFile(new Path(dir, "file"));
+    fs.createFiles(Arrays.asList(new Path(dir, "a"), new Path(dir, "b"), file));
+    assertEquals(0, fs.size(file));
+    try {
+      fs.size(new Path(dir, "missing"));
+      throw new AssertionError("NoSuchFileException expected");
+    } catch (NoSuchFileException e) {
+      // Expected
+    }
+    int listed = 0;
+    try (PathIterator iter = fs.list(dir)) {
+      while (iter.hasNext()) {
+        iter.next();
+        listed++;
+      }
+    }
+    assertEquals(3, listed);
+    try (FileLock lock = fs.lock(file)) {
+      assertTrue(lock.isValid());
+    }
+    fs.delete(file);
+
+    assertEquals(1, fs.getSnapshot(InstrumentedFileSystem.Operation.CREATE_DIRECTORY).getCount());
+    LatencyHistogram.Snapshot createFile = fs.getSnapshot(InstrumentedFileSystem.Operation.CREATE_FILE);
+    assertEquals(4, createFile.getCount());
+    assertEquals(1, createFile.getErrors());
+    LatencyHistogram.Snapshot size = fs.getSnapshot(InstrumentedFileSystem.Operation.SIZE);
+    assertEquals(2, size.getCount());
+    assertEquals(1, size.getErrors());
+    assertEquals(1, fs.getSnapshot(InstrumentedFileSystem.Operation.LIST).getCount());
+    // Once per entry, and once more to find the end
+    assertEquals(listed + 1, fs.getSnapshot(InstrumentedFileSystem.Operation.LIST_ITERATE).getCount());
+    assertEquals(1, fs.getSnapshot(InstrumentedFileSystem.Operation.LOCK).getCount());
+    assertEquals(1, fs.getSnapshot(InstrumentedFileSystem.Operation.LOCK_HOLD).getCount());
+    assertEquals(1, fs.getSnapshot(InstrumentedFileSystem.Operation.DELETE).getCount());
+
+    fs.reset();
+    assertEquals(0, fs.getSnapshot(InstrumentedFileSystem.Operation.CREATE_FILE).getCount());
+  }
+
+  /**
+   * Test of recording lockAsync, of class InstrumentedFileSystem.
+   */
+  @Test
+  public void testLockAsync() throws Exception {
+    System.out.println("lockAsync");
+    Path file = fs.createFile(fs.parsePath("/file"));
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      CompletableFuture<FileLock> future;
+      try (FileLock lock = fs.lock(file)) {
+        assertTrue(lock.isValid());
+        future = fs.lockAsync(file, scheduler);
+        // Several attempts by the wrapped file system
+        Thread.sleep(50);
+      }
+      try (FileLock lock = future.get(10, TimeUnit.SECONDS)) {
+        assertTrue(lock.isValid());
+        // Recorded once each, not per attempt
+        assertEquals(2, fs.getSnapshot(InstrumentedFileSystem.Operation.LOCK).getCount());
+        assertTrue(fs.lockAsync(file, scheduler).cancel(false));
+      }
+      LatencyHistogram.Snapshot lock = fs.getSnapshot(InstrumentedFileSystem.Operation.LOCK);
+      assertEquals(3, lock.getCount());
+      assertEquals(0, lock.getErrors());
+      assertEquals(2, fs.getSnapshot(InstrumentedFileSystem.Operation.LOCK_HOLD).getCount());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * Test of percentiles, of class LatencyHistogram.
+   */
+  @Test
+  public void testPercentile() {
+    System.out.println("percentile");
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getSnapshot().getP50Nanos());
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100, false);
+    }
+    histogram.record(1000000, true);
+    LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+    assertEquals(100, snapshot.getCount());
+    assertEquals(1, snapshot.getErrors());
+    assertEquals(1000000, snapshot.getMaxNanos());
+    assertEquals((99 * 100 + 1000000) / 100, snapshot.getMeanNanos());
+    // Upper bound of the bucket [64, 128)
+    assertEquals(127, snapshot.getP50Nanos());
+    assertEquals(127, snapshot.getP99Nanos());
+    assertEquals(1000000, snapshot.getPercentileNanos(100));
+  }
+
+  /**
+   * Test of registering with JMX, of class InstrumentedFileSystem.
+   */
+  @Test
+  public void testRegisterMBean() throws IOException, JMException {
+    System.out.println("registerMBean");
+    ObjectName name = new ObjectName("com.aoapps.io.filesystems:type=InstrumentedFileSystem,name=test");
+    fs.registerMBean(name);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      fs.size(fs.createFile(fs.parsePath("/file")));
+      CompositeData size = (CompositeData) server.getAttribute(name, "Size");
+      assertEquals(1L, size.get("count"));
+      assertEquals(0L, size.get("errors"));
+      server.invoke(name, "reset", null, null);
+      assertEquals(0, fs.getSnapshot(InstrumentedFileSystem.Operation.SIZE).getCount());
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
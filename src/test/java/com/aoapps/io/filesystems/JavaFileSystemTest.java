@@ -0,0 +1,810 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.ReadOnlyFileSystemException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link JavaFileSystem}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class JavaFileSystemTest {
+
+  private final JavaFileSystem javafs = JavaFileSystem.getDefault();
+  private java.nio.file.Path tempDir;
+  private Path work;
+
+  /**
+   * Creates a new, empty working directory.
+   */
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("JavaFileSystemTest-");
+    work = javafs.parsePath(tempDir.toAbsolutePath().toString());
+  }
+
+  /**
+   * Removes the working directory.
+   */
+  @After
+  public void tearDown() throws IOException {
+    deleteRecursive(tempDir);
+  }
+
+  private static void deleteRecursive(java.nio.file.Path path) throws IOException {
+    if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+      try (DirectoryStream<java.nio.file.Path> stream = Files.newDirectoryStream(path)) {
+        for (java.nio.file.Path child : stream) {
+          deleteRecursive(child);
+        }
+      }
+    }
+    Files.delete(path);
+  }
+
+  /**
+   * Test of listEntries method, of class JavaFileSystem.
+   */
+  @Test
+  public void testListEntries() throws IOException {
+    System.out.println("listEntries");
+    Files.write(tempDir.resolve("file"), new byte[123]);
+    Files.createDirectory(tempDir.resolve("dir"));
+    for (FileSystem fs : new FileSystem[] {javafs, new ReadOnlyFileSystem(javafs)}) {
+      Path dir = fs.parsePath(work.toString());
+      Map<String, FileAttributes> entries = new HashMap<>();
+      try (DirectoryEntryIterator iter = fs.listEntries(dir)) {
+        while (iter.hasNext()) {
+          DirectoryEntry entry = iter.next();
+          assertEquals(dir, entry.getPath().getParent());
+          assertTrue(fs == entry.getPath().getFileSystem());
+          entries.put(entry.getPath().getName(), entry.getAttributes());
+        }
+      }
+      assertEquals(2, entries.size());
+      assertTrue(entries.get("file").isRegularFile());
+      assertEquals(123, entries.get("file").getSize());
+      assertTrue(entries.get("dir").isDirectory());
+      assertFalse(entries.get("dir").isRegularFile());
+    }
+  }
+
+  /**
+   * Test of readAttributes method, of class JavaFileSystem.
+   */
+  @Test
+  public void testReadAttributes() throws IOException {
+    System.out.println("readAttributes");
+    Files.write(tempDir.resolve("file"), new byte[42]);
+    FileAttributes attributes = javafs.readAttributes(new Path(work, "file"));
+    assertTrue(attributes.isRegularFile());
+    assertEquals(42, attributes.getSize());
+    assertEquals(Files.getLastModifiedTime(tempDir.resolve("file")).toMillis(), attributes.getLastModified());
+    assertTrue(javafs.readAttributes(work).isDirectory());
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testReadAttributesNoSuchFile() throws IOException {
+    System.out.println("readAttributes");
+    javafs.readAttributes(new Path(work, "missing"));
+  }
+
+  /**
+   * Creates a tree of the given depth and breadth below the given directory.
+   *
+   * @return  the number of files and directories created
+   */
+  private static int createTree(java.nio.file.Path dir, int depth, int breadth) throws IOException {
+    int count = 0;
+    for (int i = 0; i < breadth; i++) {
+      Files.write(dir.resolve("file" + i), new byte[i]);
+      count++;
+      if (depth > 0) {
+        java.nio.file.Path subdir = Files.createDirectory(dir.resolve("dir" + i));
+        count += 1 + createTree(subdir, depth - 1, breadth);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Test of walk method, of class FileTreeWalker.
+   */
+  @Test
+  public void testWalk() throws IOException {
+    System.out.println("walk");
+    final int count = createTree(tempDir, 3, 4);
+    Map<Path, Boolean> visited = new ConcurrentHashMap<>();
+    AtomicInteger postVisits = new AtomicInteger();
+    new FileTreeWalker().walk(
+        new ReadOnlyFileSystem(javafs).parsePath(work.toString()),
+        new FileTreeWalker.Visitor() {
+          @Override
+          public boolean preVisitDirectory(DirectoryEntry directory) {
+            assertTrue(visited.put(directory.getPath(), false) == null);
+            return true;
+          }
+
+          @Override
+          public void visitFile(DirectoryEntry file) {
+            assertTrue(file.getAttributes().isRegularFile());
+            assertTrue(visited.put(file.getPath(), true) == null);
+            assertTrue(visited.containsKey(file.getPath().getParent()));
+          }
+
+          @Override
+          public void postVisitDirectory(DirectoryEntry directory) throws IOException {
+            // All children already visited
+            try (PathIterator iter = directory.getPath().getFileSystem().list(directory.getPath())) {
+              while (iter.hasNext()) {
+                Path child = iter.next();
+                assertTrue(visited.containsKey(child));
+              }
+            }
+            postVisits.incrementAndGet();
+          }
+        }
+    );
+    // Includes the start directory
+    assertEquals(count + 1, visited.size());
+    assertEquals(1 + 4 + 16 + 64, postVisits.get());
+  }
+
+  /**
+   * Test of walk method, of class FileTreeWalker, with limited depth.
+   */
+  @Test
+  public void testWalkMaxDepth() throws IOException {
+    System.out.println("walk");
+    createTree(tempDir, 3, 2);
+    AtomicInteger files = new AtomicInteger();
+    new FileTreeWalker().walk(work, 1, new FileTreeWalker.Visitor() {
+      @Override
+      public void visitFile(DirectoryEntry file) {
+        files.incrementAndGet();
+      }
+    });
+    // Two files and two unlisted directories
+    assertEquals(4, files.get());
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testWalkFailure() throws IOException {
+    System.out.println("walk");
+    createTree(tempDir, 2, 2);
+    new FileTreeWalker().walk(work, new FileTreeWalker.Visitor() {
+      @Override
+      public void visitFile(DirectoryEntry file) throws IOException {
+        throw new NoSuchFileException(file.getPath().toString());
+      }
+    });
+  }
+
+  /**
+   * Test of deleteTree method, of class TreeDeleter.
+   */
+  @Test
+  public void testDeleteTree() throws IOException {
+    System.out.println("deleteTree");
+    createTree(tempDir, 3, 5);
+    // Small batches to delete files within each directory in parallel, with few subtasks outstanding
+    new TreeDeleter(new FileTreeWalker(ForkJoinPool.commonPool(), 2, 2)).deleteTree(work);
+    assertFalse(Files.exists(tempDir, LinkOption.NOFOLLOW_LINKS));
+    // Let tearDown succeed
+    Files.createDirectory(tempDir);
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testDeleteTreeNoSuchFile() throws IOException {
+    System.out.println("deleteTree");
+    javafs.deleteTree(new Path(work, "missing"));
+  }
+
+  @Test(expected = ReadOnlyFileSystemException.class)
+  public void testDeleteTreeReadOnly() throws IOException {
+    System.out.println("deleteTree");
+    ReadOnlyFileSystem readOnly = new ReadOnlyFileSystem(javafs);
+    readOnly.deleteTree(readOnly.parsePath(work.toString()));
+  }
+
+  /**
+   * Each failure is reported, and nothing above a failure is attempted.
+   */
+  @Test
+  public void testDeleteTreeFailures() throws IOException {
+    System.out.println("deleteTree");
+    createTree(tempDir, 1, 3);
+    RandomFailFileSystem failfs = new RandomFailFileSystem(
+        javafs,
+        new RandomFailFileSystem.FailureProbabilities() {
+          @Override
+          public float getList() {
+            return 0;
+          }
+
+          @Override
+          public float getListIterate() {
+            return 0;
+          }
+
+          @Override
+          public float getListIterateClose() {
+            return 0;
+          }
+
+          @Override
+          public float getReadAttributes() {
+            return 0;
+          }
+
+          @Override
+          public float getUnlink() {
+            return 1;
+          }
+        },
+        new Random()
+    );
+    try {
+      failfs.deleteTree(failfs.parsePath(work.toString()));
+      fail("IOException expected");
+    } catch (IOException e) {
+      // Three files in each of the start directory and its three subdirectories
+      assertEquals(12, e.getSuppressed().length);
+    }
+    assertTrue(Files.exists(tempDir.resolve("dir0").resolve("file0")));
+  }
+
+  /**
+   * Test of diskUsage method, of class DiskUsage.
+   */
+  @Test
+  public void testDiskUsage() throws IOException {
+    System.out.println("diskUsage");
+    // Each directory has three files of 0, 1, and 2 bytes
+    createTree(tempDir, 2, 3);
+    Map<Path, DiskUsage.Usage> subtrees = new ConcurrentHashMap<>();
+    DiskUsage.Usage usage = new DiskUsage().diskUsage(work, (directory, subtree) -> {
+      assertTrue(subtrees.put(directory, subtree) == null);
+    });
+    assertEquals(3 * 13, usage.getBytes());
+    assertEquals(3 * 13, usage.getFiles());
+    assertEquals(13, usage.getDirectories());
+    assertEquals(13, subtrees.size());
+    assertSame(usage, subtrees.get(work));
+    DiskUsage.Usage dir1 = subtrees.get(new Path(work, "dir1"));
+    assertEquals(3 * 4, dir1.getBytes());
+    assertEquals(4, dir1.getDirectories());
+    // A single file
+    usage = new DiskUsage().diskUsage(new Path(work, "file2"));
+    assertEquals(2, usage.getBytes());
+    assertEquals(1, usage.getFiles());
+    assertEquals(0, usage.getDirectories());
+  }
+
+  /**
+   * Test of batch methods, directly and through a wrapper.
+   */
+  @Test
+  public void testBatch() throws IOException {
+    System.out.println("batch");
+    RandomFailFileSystem wrapper = new RandomFailFileSystem(javafs, new RandomFailFileSystem.FailureProbabilities() {
+      @Override
+      public float getUnlink() {
+        return 0;
+      }
+
+      @Override
+      public float getSize() {
+        return 0;
+      }
+
+      @Override
+      public float getCreateFile() {
+        return 0;
+      }
+    }, new Random());
+    for (FileSystem fs : new FileSystem[]{javafs, wrapper}) {
+      Path dir = fs.parsePath(work.toString());
+      List<Path> paths = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        paths.add(new Path(dir, "file" + i));
+      }
+      paths.add(new Path(new Path(dir, "missing"), "file"));
+      List<BatchResult<Path>> created = fs.createFiles(paths);
+      assertEquals(6, created.size());
+      for (int i = 0; i < 5; i++) {
+        assertEquals(paths.get(i), created.get(i).getPath());
+        assertSame(fs, created.get(i).get().getFileSystem());
+      }
+      assertTrue(created.get(5).getFailure() instanceof NoSuchFileException);
+      // Already exist
+      assertFalse(fs.createFiles(paths.subList(0, 2)).get(1).isSuccess());
+      List<BatchResult<Long>> sizes = fs.sizeAll(paths);
+      for (int i = 0; i < 5; i++) {
+        assertEquals(0L, (long) sizes.get(i).get());
+      }
+      assertFalse(sizes.get(5).isSuccess());
+      List<BatchResult<Void>> deleted = fs.deleteAll(paths);
+      for (int i = 0; i < 5; i++) {
+        assertTrue(deleted.get(i).isSuccess());
+        assertFalse(Files.exists(tempDir.resolve("file" + i)));
+      }
+      assertTrue(deleted.get(5).getFailure() instanceof NoSuchFileException);
+    }
+  }
+
+  /**
+   * Test of createDirectories method, of class JavaFileSystem.
+   */
+  @Test
+  public void testCreateDirectories() throws IOException {
+    System.out.println("createDirectories");
+    Path deep = new Path(new Path(new Path(work, "a"), "b"), "c");
+    assertEquals(deep, javafs.createDirectories(deep));
+    assertTrue(Files.isDirectory(tempDir.resolve("a").resolve("b").resolve("c")));
+    // Already exists
+    javafs.createDirectories(deep);
+    javafs.createDirectories(work);
+    // Exists as a file
+    Path file = javafs.createFile(new Path(work, "file"));
+    try {
+      javafs.createDirectories(file);
+      fail("FileAlreadyExistsException expected");
+    } catch (FileAlreadyExistsException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of newByteChannel method, of class JavaFileSystem.
+   */
+  @Test
+  public void testNewByteChannel() throws IOException {
+    System.out.println("newByteChannel");
+    Path file = new Path(work, "file");
+    byte[] data = {1, 2, 3, 4, 5};
+    try (SeekableByteChannel channel = javafs.openWrite(file)) {
+      assertTrue(channel instanceof FileChannel);
+      assertEquals(data.length, channel.write(ByteBuffer.wrap(data)));
+    }
+    assertEquals(data.length, javafs.size(file));
+    // Passed through wrappers unchanged
+    ReadOnlyFileSystem readOnly = new ReadOnlyFileSystem(javafs);
+    Path readOnlyFile = readOnly.parsePath(file.toString());
+    ByteBuffer buffer = ByteBuffer.allocate(data.length);
+    try (SeekableByteChannel channel = readOnly.openRead(readOnlyFile)) {
+      assertTrue(channel instanceof FileChannel);
+      assertEquals(data.length, channel.read(buffer));
+    }
+    assertArrayEquals(data, buffer.array());
+    try {
+      readOnly.openWrite(readOnlyFile);
+      fail("ReadOnlyFileSystemException expected");
+    } catch (ReadOnlyFileSystemException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of {@link FileCopier} between {@link JavaFileSystem} and {@link TempFileSystem}.
+   */
+  @Test
+  public void testCopyTree() throws IOException {
+    System.out.println("copyTree");
+    Path source = javafs.createDirectories(new Path(new Path(work, "source"), "sub"));
+    byte[] data = new byte[100000];
+    new Random(1).nextBytes(data);
+    try (SeekableByteChannel channel = javafs.openWrite(new Path(source, "file"))) {
+      channel.write(ByteBuffer.wrap(data));
+    }
+    javafs.createFile(new Path(source.getParent(), "empty"));
+    FileCopier copier = new FileCopier();
+    // Java to temp, by transferTo
+    TempFileSystem tempfs = new TempFileSystem();
+    Path temp = tempfs.parsePath("/copy");
+    copier.copyTree(source.getParent(), temp);
+    assertEquals(data.length, tempfs.size(tempfs.parsePath("/copy/sub/file")));
+    assertEquals(0, tempfs.size(tempfs.parsePath("/copy/empty")));
+    // Temp to temp, buffered
+    Path temp2 = tempfs.parsePath("/copy2");
+    copier.moveTree(temp, temp2);
+    assertTrue(tempfs.readAttributes(new Path(temp2, "sub")).isDirectory());
+    try {
+      tempfs.readAttributes(temp);
+      fail("NoSuchFileException expected");
+    } catch (NoSuchFileException e) {
+      // Expected
+    }
+    // Temp to Java, by transferFrom
+    Path target = new Path(work, "target");
+    copier.copyTree(temp2, target);
+    assertArrayEquals(data, Files.readAllBytes(tempDir.resolve("target").resolve("sub").resolve("file")));
+    try {
+      copier.copy(new Path(temp2, "empty"), new Path(target, "empty"));
+      fail("FileAlreadyExistsException expected");
+    } catch (FileAlreadyExistsException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * A failed copy does not leave a partial target.
+   */
+  @Test
+  public void testCopyFailure() throws IOException {
+    System.out.println("copy");
+    TempFileSystem tempfs = new TempFileSystem();
+    Path source = tempfs.createFile(tempfs.parsePath("/source"));
+    try (SeekableByteChannel channel = tempfs.openWrite(source)) {
+      channel.write(ByteBuffer.allocate(100000));
+    }
+    RandomFailFileSystem failfs = new RandomFailFileSystem(
+        tempfs,
+        new RandomFailFileSystem.FailureProbabilities() {
+          @Override
+          public float getOpen() {
+            return 0;
+          }
+
+          @Override
+          public float getRead() {
+            return 1;
+          }
+
+          @Override
+          public float getChannelClose() {
+            return 0;
+          }
+        },
+        new Random()
+    );
+    Path target = tempfs.parsePath("/target");
+    try {
+      new FileCopier().copy(failfs.parsePath(source.toString()), target);
+      fail("IOException expected");
+    } catch (IOException e) {
+      // Expected
+    }
+    try {
+      tempfs.readAttributes(target);
+      fail("NoSuchFileException expected");
+    } catch (NoSuchFileException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of lock and tryLock methods, of class JavaFileSystem.
+   */
+  @Test
+  public void testLock() throws IOException {
+    System.out.println("lock");
+    Path file = javafs.createFile(new Path(work, "file"));
+    try (FileLock lock = javafs.lock(file)) {
+      assertTrue(lock.isValid());
+      assertFalse(lock.isShared());
+    }
+    try (FileLock lock = javafs.lock(file, 0, 100, true)) {
+      assertTrue(lock.isShared());
+      try (FileLock other = javafs.tryLock(file, 100, 100, true)) {
+        assertTrue(other.isValid());
+        assertEquals(100, other.position());
+      }
+      // Waits for the shared operating system lock to be released
+      assertEquals(null, javafs.tryLock(file, 100, 100, false));
+    }
+    try (FileLock lock = javafs.lock(file, 0, 100, false)) {
+      assertTrue(lock.isValid());
+      try (FileLock other = javafs.tryLock(file, 100, 100, false)) {
+        assertTrue(other.isValid());
+      }
+    }
+  }
+
+  /**
+   * Test of concurrent locks on the same file within the JVM, of class JavaFileSystem.
+   */
+  @Test
+  public void testLockConcurrent() throws Exception {
+    System.out.println("lockConcurrent");
+    Path file = javafs.createFile(new Path(work, "file"));
+    // Overlapping shared locks
+    try (
+        FileLock shared1 = javafs.lock(file, 0, Long.MAX_VALUE, true);
+        FileLock shared2 = javafs.lock(file, 0, Long.MAX_VALUE, true)
+        ) {
+      assertTrue(shared1.isValid());
+      assertTrue(shared2.isValid());
+      assertEquals(null, javafs.tryLock(file));
+    }
+    // Exclusive locks wait for each other
+    AtomicInteger held = new AtomicInteger();
+    AtomicInteger maxHeld = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    IOException[] failure = new IOException[1];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          for (int j = 0; j < 50; j++) {
+            try (FileLock lock = javafs.lock(file)) {
+              assertTrue(lock.isValid());
+              maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+              held.decrementAndGet();
+            }
+          }
+        } catch (IOException e) {
+          synchronized (failure) {
+            failure[0] = e;
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    assertEquals(1, maxHeld.get());
+  }
+
+  /**
+   * Test of lockAsync method, of class JavaFileSystem.
+   */
+  @Test
+  public void testLockAsync() throws Exception {
+    System.out.println("lockAsync");
+    Path file = javafs.createFile(new Path(work, "file"));
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      CompletableFuture<FileLock> future;
+      try (FileLock lock = javafs.lock(file)) {
+        assertTrue(lock.isValid());
+        future = javafs.lockAsync(file, scheduler);
+        Thread.sleep(10);
+        assertFalse(future.isDone());
+      }
+      // Completes once the conflicting lock is released
+      try (FileLock lock = future.get(10, TimeUnit.SECONDS)) {
+        assertTrue(lock.isValid());
+        // Cancelled before acquired
+        CompletableFuture<FileLock> cancelled = javafs.lockAsync(file, scheduler);
+        assertTrue(cancelled.cancel(false));
+        assertTrue(cancelled.isCancelled());
+      }
+      // The cancelled attempt does not keep the lock
+      Thread.sleep(10);
+      try (FileLock lock = javafs.tryLock(file)) {
+        assertTrue(lock.isValid());
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * Test of a waiting exclusive lock holding back new shared locks, of class JavaFileSystem.
+   */
+  @Test
+  public void testLockWriterPreference() throws Exception {
+    System.out.println("lockWriterPreference");
+    Path file = javafs.createFile(new Path(work, "file"));
+    FileLock[] exclusive = new FileLock[1];
+    IOException[] failure = new IOException[1];
+    Thread writer;
+    try (FileLock shared = javafs.lock(file, 0, Long.MAX_VALUE, true)) {
+      assertTrue(shared.isValid());
+      writer = new Thread(() -> {
+        try {
+          exclusive[0] = javafs.lock(file);
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      });
+      writer.start();
+      Thread.sleep(100);
+      assertTrue(writer.isAlive());
+      // Would be granted alongside the held shared lock if not for the waiting writer
+      assertEquals(null, javafs.tryLock(file, 0, Long.MAX_VALUE, true));
+    }
+    writer.join();
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    try (FileLock lock = exclusive[0]) {
+      assertTrue(lock.isValid());
+      assertFalse(lock.isShared());
+    }
+    try (FileLock lock = javafs.tryLock(file, 0, Long.MAX_VALUE, true)) {
+      assertTrue(lock.isValid());
+    }
+  }
+
+  /**
+   * Test of locking the same file through different paths, of class JavaFileSystem.
+   */
+  @Test
+  public void testLockAlias() throws IOException {
+    System.out.println("lockAlias");
+    Path file = javafs.createFile(new Path(work, "file"));
+    Path link = new Path(work, "link");
+    Files.createSymbolicLink(tempDir.resolve("link"), tempDir.resolve("file"));
+    try (FileLock lock = javafs.lock(file)) {
+      assertTrue(lock.isValid());
+      // Waits within the JVM instead of failing with OverlappingFileLockException
+      assertEquals(null, javafs.tryLock(link));
+    }
+    try (FileLock lock = javafs.lock(link, 0, Long.MAX_VALUE, true)) {
+      try (FileLock other = javafs.tryLock(file, 0, Long.MAX_VALUE, true)) {
+        assertTrue(lock.isValid());
+        assertTrue(other.isValid());
+      }
+    }
+  }
+
+  /**
+   * Test of caching open channels, of class JavaFileSystem.
+   */
+  @Test
+  public void testChannelCache() throws IOException {
+    System.out.println("channelCache");
+    JavaFileSystem cached = new JavaFileSystem(FileSystems.getDefault(), 2);
+    assertEquals(2, cached.getMaxCachedChannels());
+    assertEquals(0, javafs.getMaxCachedChannels());
+    Path file = cached.parsePath(new Path(work, "file").toString());
+    byte[] data = {1, 2, 3, 4, 5};
+    try (SeekableByteChannel channel = cached.openWrite(file)) {
+      channel.write(ByteBuffer.wrap(data));
+    }
+    // Views of the same channel have their own positions
+    try (
+        SeekableByteChannel view1 = cached.openRead(file);
+        SeekableByteChannel view2 = cached.openRead(file)
+        ) {
+      ByteBuffer buffer = ByteBuffer.allocate(2);
+      assertEquals(2, view1.read(buffer));
+      assertEquals(2, view1.position());
+      assertEquals(0, view2.position());
+      assertEquals(data.length, view2.size());
+      buffer = ByteBuffer.allocate(data.length);
+      assertEquals(data.length, view2.read(buffer));
+      assertArrayEquals(data, buffer.array());
+      assertEquals(-1, view2.read(ByteBuffer.allocate(1)));
+      try {
+        view1.write(ByteBuffer.wrap(data));
+        fail("NonWritableChannelException expected");
+      } catch (NonWritableChannelException e) {
+        // Expected
+      }
+      // Locks share the cached channels
+      for (int i = 0; i < 3; i++) {
+        try (FileLock lock = cached.lock(file, 0, Long.MAX_VALUE, true)) {
+          assertTrue(lock.isValid());
+        }
+        try (FileLock lock = cached.lock(file)) {
+          assertTrue(lock.isValid());
+        }
+      }
+    }
+    // Deleting invalidates the cached channels
+    cached.delete(file);
+    byte[] newData = {6, 7, 8};
+    try (SeekableByteChannel channel = cached.openWrite(file)) {
+      channel.write(ByteBuffer.wrap(newData));
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(newData.length);
+    try (SeekableByteChannel channel = cached.openRead(file)) {
+      assertEquals(newData.length, channel.read(buffer));
+    }
+    assertArrayEquals(newData, buffer.array());
+    cached.invalidateChannels();
+  }
+
+  /**
+   * Test of interrupting a reader of a cached channel, of class JavaFileSystem.
+   */
+  @Test
+  public void testChannelCacheInterrupt() throws IOException {
+    System.out.println("channelCacheInterrupt");
+    JavaFileSystem cached = new JavaFileSystem(FileSystems.getDefault(), 4);
+    Path file = cached.parsePath(new Path(work, "file").toString());
+    byte[] data = {1, 2, 3, 4, 5};
+    try (SeekableByteChannel channel = cached.openWrite(file)) {
+      channel.write(ByteBuffer.wrap(data));
+    }
+    try (
+        FileLock shared = cached.lock(file, 0, Long.MAX_VALUE, true);
+        SeekableByteChannel other = cached.openRead(file)
+        ) {
+      try (SeekableByteChannel interrupted = cached.openRead(file)) {
+        Thread.currentThread().interrupt();
+        try {
+          interrupted.read(ByteBuffer.allocate(data.length));
+          fail("ClosedByInterruptException expected");
+        } catch (ClosedByInterruptException e) {
+          // Expected
+        } finally {
+          // Clear the interrupted status
+          Thread.interrupted();
+        }
+        assertFalse(interrupted.isOpen());
+      }
+      // The lock does not share the channel closed by the interrupt
+      assertTrue(shared.isValid());
+      // Other views continue on a new channel
+      ByteBuffer buffer = ByteBuffer.allocate(data.length);
+      assertEquals(data.length, other.read(buffer));
+      assertArrayEquals(data, buffer.array());
+    }
+    // Reads and locks again
+    ByteBuffer buffer = ByteBuffer.allocate(data.length);
+    try (SeekableByteChannel channel = cached.openRead(file)) {
+      assertEquals(data.length, channel.read(buffer));
+    }
+    assertArrayEquals(data, buffer.array());
+    try (FileLock lock = cached.lock(file, 0, Long.MAX_VALUE, true)) {
+      assertTrue(lock.isValid());
+    }
+    try (FileLock lock = cached.lock(file)) {
+      assertTrue(lock.isValid());
+    }
+    cached.invalidateChannels();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link PathInterner}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class PathInternerTest {
+
+  private final TempFileSystem tempfs = new TempFileSystem();
+  private final PathInterner interner = new PathInterner(tempfs);
+
+  /**
+   * Test of parsePath method, of class PathInterner.
+   */
+  @Test
+  public void testParsePath() {
+    System.out.println("parsePath");
+    assertSame(interner.getRoot(), interner.parsePath("/"));
+    assertSame(interner.getRoot(), interner.parsePath(""));
+    Path bash = interner.parsePath("/bin/bash");
+    assertEquals(tempfs.parsePath("/bin/bash"), bash);
+    assertSame(bash, interner.parsePath("/bin/bash"));
+    assertSame(bash.getParent(), interner.parsePath("/bin"));
+    assertSame(bash.getParent(), interner.parsePath("/bin/cp").getParent());
+  }
+
+  @Test(expected = InvalidPathException.class)
+  public void testParsePathNonEmptyRoot() {
+    System.out.println("parsePath");
+    interner.parsePath("bin/bash");
+  }
+
+  @Test(expected = InvalidPathException.class)
+  public void testParsePathTrailingSeparator() {
+    System.out.println("parsePath");
+    interner.parsePath("/bin/");
+  }
+
+  /**
+   * Test of join method, of class PathInterner.
+   */
+  @Test
+  public void testJoin() {
+    System.out.println("join");
+    assertSame(interner.getRoot(), interner.join(new String[0]));
+    assertSame(interner.parsePath("/bin/bash"), interner.join(new String[]{"bin", "bash", null, "ignored"}));
+  }
+
+  /**
+   * Test of intern method, of class PathInterner.
+   */
+  @Test
+  public void testIntern() {
+    System.out.println("intern");
+    Path bash = tempfs.parsePath("/bin/bash");
+    Path interned = interner.intern(bash);
+    assertNotSame(bash, interned);
+    assertEquals(bash, interned);
+    assertSame(interned, interner.intern(interned));
+    assertSame(interned, interner.intern(tempfs.parsePath("/bin/bash")));
+  }
+
+  /**
+   * Paths are still returned, but no longer interned, once the table is full.
+   */
+  @Test
+  public void testMaxSize() {
+    System.out.println("maxSize");
+    PathInterner small = new PathInterner(tempfs, 1);
+    Path bash = small.parsePath("/bin/bash");
+    assertEquals(tempfs.parsePath("/bin/bash"), bash);
+    assertSame(bash.getParent(), small.parsePath("/bin"));
+    assertNotSame(bash, small.parsePath("/bin/bash"));
+    assertEquals(1, small.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @SuppressWarnings("ResultOfObjectAllocationIgnored")
+  public void testWrapperRejected() {
+    System.out.println("<init>");
+    new PathInterner(new ReadOnlyFileSystem(tempfs));
+  }
+}
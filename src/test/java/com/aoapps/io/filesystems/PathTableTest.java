@@ -0,0 +1,119 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link PathTable}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class PathTableTest {
+
+  private final TempFileSystem tempfs = new TempFileSystem();
+
+  private void testAddAndLookup(boolean direct) {
+    PathTable table = new PathTable(tempfs, direct);
+    assertEquals(1, table.size());
+    int bash = table.add(tempfs.parsePath("/bin/bash"));
+    int bin = table.getParent(bash);
+    assertEquals(3, table.size());
+    assertEquals(PathTable.ROOT, table.getParent(bin));
+    assertEquals(PathTable.NOT_FOUND, table.getParent(PathTable.ROOT));
+    assertEquals(bash, table.add(tempfs.parsePath("/bin/bash")));
+    assertEquals(bash, table.indexOf(tempfs.parsePath("/bin/bash")));
+    assertEquals(bash, table.getChild(bin, "bash"));
+    assertEquals(PathTable.NOT_FOUND, table.getChild(bin, "cp"));
+    assertEquals(PathTable.NOT_FOUND, table.indexOf(tempfs.parsePath("/usr/bin")));
+    int usrBin = table.add(tempfs.parsePath("/usr/bin"));
+    assertNotEquals(bin, usrBin);
+    // Names are stored once
+    assertEquals(table.getNameId(bin), table.getNameId(usrBin));
+    assertEquals(4, table.getNameCount());
+    assertEquals("bash", table.getName(bash));
+    assertEquals("", table.getName(PathTable.ROOT));
+    assertEquals(2, table.getDepth(bash));
+    assertEquals("/bin/bash", table.toString(bash));
+    assertEquals("/usr/bin", table.toString(usrBin));
+    assertEquals("/", table.toString(PathTable.ROOT));
+    assertEquals(tempfs.parsePath("/bin/bash"), table.toPath(bash));
+    assertEquals(new Path(tempfs), table.toPath(PathTable.ROOT));
+  }
+
+  @Test
+  public void testAddAndLookupHeap() {
+    System.out.println("add");
+    testAddAndLookup(false);
+  }
+
+  @Test
+  public void testAddAndLookupDirect() {
+    System.out.println("add");
+    testAddAndLookup(true);
+  }
+
+  /**
+   * Adds enough paths to grow all storage several times.
+   */
+  @Test
+  public void testGrowth() {
+    System.out.println("add");
+    PathTable table = new PathTable(tempfs, true);
+    int[] handles = new int[10000];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = table.add(tempfs.parsePath("/dir" + (i % 100) + "/file" + i));
+    }
+    assertEquals(1 + 100 + handles.length, table.size());
+    for (int i = 0; i < handles.length; i++) {
+      String str = "/dir" + (i % 100) + "/file" + i;
+      assertEquals(handles[i], table.indexOf(tempfs.parsePath(str)));
+      assertEquals(str, table.toString(handles[i]));
+    }
+  }
+
+  /**
+   * Adds a deep path, then adds and finds its ancestors.
+   */
+  @Test
+  public void testDeep() {
+    System.out.println("deep");
+    PathTable table = new PathTable(tempfs);
+    Path path = new Path(tempfs);
+    for (int i = 0; i < 1000; i++) {
+      path = new Path(path, "dir" + (i % 10));
+    }
+    int handle = table.add(path);
+    assertEquals(1 + 1000, table.size());
+    assertEquals(handle, table.indexOf(path));
+    assertEquals(1000, table.getDepth(handle));
+    Path parent = path.getParent();
+    assertEquals(table.getParent(handle), table.add(parent));
+    assertEquals(1 + 1000, table.size());
+    assertEquals(PathTable.NOT_FOUND, table.indexOf(new Path(parent, "other")));
+  }
+}
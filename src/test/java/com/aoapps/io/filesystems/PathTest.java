@@ -1,6 +1,6 @@
 /*
  * ao-io-filesystems - Advanced filesystem utilities.
- * Copyright (C) 2015, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2015, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import org.junit.Test;
 
 /**
@@ -313,4 +314,147 @@ public class PathTest {
         readOnlyBash.explode(new String[]{"1", "2", "3", "4", "5"})
     );
   }
+
+  /**
+   * Test of startsWith method, of class Path.
+   */
+  @Test
+  public void testStartsWith() {
+    System.out.println("startsWith");
+    assertTrue(root.startsWith(root));
+    assertTrue(bash.startsWith(root));
+    assertTrue(bash.startsWith(bin));
+    assertTrue(bash.startsWith(bin2));
+    assertTrue(bash.startsWith(bash));
+    assertTrue(readOnlyBash.startsWith(bin));
+    assertFalse(bin.startsWith(bash));
+    assertFalse(bash.startsWith(cp));
+    assertFalse(root.startsWith(bin));
+  }
+
+  /**
+   * Test of commonAncestor method, of class Path.
+   */
+  @Test
+  public void testCommonAncestor() {
+    System.out.println("commonAncestor");
+    assertSame(root, root.commonAncestor(bash));
+    assertSame(bin, bash.commonAncestor(cp));
+    assertSame(bin, bin.commonAncestor(bash));
+    assertSame(bin, bash.commonAncestor(bin2));
+    assertSame(bash, bash.commonAncestor(bash));
+    assertEquals(bash, bash.commonAncestor(readOnlyBash));
+    Path usrBin = tempfs.parsePath("/usr/bin");
+    assertSame(root, bash.commonAncestor(usrBin));
+    assertEquals(root, usrBin.commonAncestor(bin));
+  }
+
+  /**
+   * Test of resolve method, of class Path.
+   */
+  @Test
+  public void testResolve() {
+    System.out.println("resolve");
+    assertSame(bin, bin.resolve(root));
+    assertEquals(bash, root.resolve(bash));
+    assertEquals(tempfs.parsePath("/bin/bin/bash"), bin.resolve(bash));
+    Path resolved = bin.resolve(readOnlyFs.parsePath("/bash"));
+    assertEquals(bash, resolved);
+    assertSame(tempfs, resolved.getFileSystem());
+  }
+
+  /**
+   * Test of relativize method, of class Path.
+   */
+  @Test
+  public void testRelativize() {
+    System.out.println("relativize");
+    assertEquals(root, bash.relativize(bash));
+    assertEquals(bash, root.relativize(bash));
+    assertEquals(tempfs.parsePath("/bash"), bin.relativize(bash));
+    assertEquals(bash, bin.resolve(bin.relativize(bash)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRelativizeNotDescendant() {
+    System.out.println("relativize");
+    cp.relativize(bash);
+  }
+
+  /**
+   * Paths deeper than the call stack could handle recursively.
+   */
+  @Test
+  public void testDeepPath() throws IOException {
+    System.out.println("deep");
+    final int depth = 100000;
+    String[] names = new String[depth];
+    for (int i = 0; i < depth; i++) {
+      names[i] = "d";
+    }
+    Path deep = tempfs.join(names);
+    names[depth - 1] = "e";
+    Path deepE = tempfs.join(names);
+    assertTrue(deep.compareTo(deepE) < 0);
+    assertTrue(deepE.compareTo(deep) > 0);
+    assertEquals(deep.getParent(), deep.commonAncestor(deepE));
+    assertEquals(depth * 2, deep.toString().length());
+    StringBuilder sb = new StringBuilder();
+    deep.toString(sb);
+    assertEquals(deep.toString(), sb.toString());
+    Path half = deep.getParent();
+    while (half.getDepth() > depth / 2) {
+      half = half.getParent();
+    }
+    Path relative = half.relativize(deep);
+    assertEquals(depth - depth / 2, relative.getDepth());
+    assertEquals(deep, half.resolve(relative));
+    assertEquals(deep.hashCode(), tempfs.join(names).getParent().resolve(new Path(new Path(tempfs), "d")).hashCode());
+    assertEquals(deep, readOnlyFs.wrapPath(deep));
+  }
+
+  /**
+   * Wrapped names are only validated again by wrappers with their own checks.
+   */
+  @Test(expected = InvalidPathException.class)
+  public void testWrapperCheckSubPath() {
+    System.out.println("checkSubPath");
+    FileSystemWrapper noBash = new FileSystemWrapper(tempfs) {
+      @Override
+      public void checkSubPath(Path parent, String name) throws InvalidPathException {
+        super.checkSubPath(parent, name);
+        if ("bash".equals(name)) {
+          throw new InvalidPathException("No bash");
+        }
+      }
+    };
+    assertEquals(bin, noBash.parsePath("/bin"));
+    noBash.parsePath("/bin/bash");
+  }
+
+  /**
+   * Recently wrapped paths are reused.
+   */
+  @Test
+  public void testWrapPathCached() {
+    System.out.println("wrapPath");
+    Path readOnlyBin = readOnlyBash.getParent();
+    assertSame(readOnlyBash, readOnlyFs.parsePath("/bin/bash"));
+    assertSame(readOnlyBin, readOnlyFs.parsePath("/bin/cp").getParent());
+    assertSame(readOnlyBin, readOnlyFs.wrapPath(bin2));
+  }
+
+  /**
+   * Paths created directly on a wrapper are not path wrappers, but must still unwrap.
+   */
+  @Test
+  public void testUnwrapDirectPath() {
+    System.out.println("unwrapPath");
+    Path directRoot = new Path(readOnlyFs);
+    assertEquals(root, readOnlyFs.unwrapPath(directRoot));
+    assertEquals(bash, readOnlyFs.unwrapPath(new Path(new Path(directRoot, "bin"), "bash")));
+    assertEquals(bash, readOnlyFs.unwrapPath(new Path(readOnlyBash.getParent(), "bash")));
+    assertSame(tempfs, readOnlyFs.unwrapPath(new Path(readOnlyBash.getParent(), "bash")).getFileSystem());
+    assertEquals(bash, readOnlyFs.getPathWrapper(new Path(readOnlyBash.getParent(), "bash")).wrappedPath);
+  }
 }
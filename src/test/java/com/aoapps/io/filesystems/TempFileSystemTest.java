@@ -0,0 +1,468 @@
+/*
+ * ao-io-filesystems - Advanced filesystem utilities.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-io-filesystems.
+ *
+ * ao-io-filesystems is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-io-filesystems is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-io-filesystems.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.io.filesystems;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests {@link TempFileSystem}.
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class TempFileSystemTest {
+
+  private final TempFileSystem tempfs = new TempFileSystem();
+
+  /**
+   * Test of createDirectory method, of class TempFileSystem.
+   */
+  @Test
+  public void testCreateDirectory() throws IOException {
+    System.out.println("createDirectory");
+    Path dir = tempfs.createDirectory(tempfs.parsePath("/dir"));
+    assertTrue(tempfs.readAttributes(dir).isDirectory());
+    try {
+      tempfs.createDirectory(dir);
+      throw new AssertionError("FileAlreadyExistsException expected");
+    } catch (FileAlreadyExistsException e) {
+      // Expected
+    }
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testCreateDirectoryNoParent() throws IOException {
+    System.out.println("createDirectory");
+    tempfs.createDirectory(tempfs.parsePath("/missing/dir"));
+  }
+
+  /**
+   * Test of createDirectories method, of class TempFileSystem.
+   */
+  @Test
+  public void testCreateDirectories() throws IOException {
+    System.out.println("createDirectories");
+    Path deep = tempfs.parsePath("/a/b/c/d");
+    assertEquals(deep, tempfs.createDirectories(deep));
+    assertTrue(tempfs.readAttributes(tempfs.parsePath("/a/b")).isDirectory());
+    assertTrue(tempfs.readAttributes(deep).isDirectory());
+    // Already exists
+    tempfs.createDirectories(deep);
+    tempfs.createDirectories(tempfs.parsePath("/"));
+    // Shares existing parents
+    tempfs.createDirectories(tempfs.parsePath("/a/b/e"));
+    assertEquals(2, count(tempfs.parsePath("/a/b")));
+  }
+
+  private int count(Path dir) throws IOException {
+    int count = 0;
+    try (PathIterator iter = tempfs.list(dir)) {
+      while (iter.hasNext()) {
+        iter.next();
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Test of createFile, size and delete methods, of class TempFileSystem.
+   */
+  @Test
+  public void testCreateFileDelete() throws IOException {
+    System.out.println("createFile");
+    Path dir = tempfs.createDirectory(tempfs.parsePath("/dir"));
+    Path file = tempfs.createFile(new Path(dir, "file"));
+    assertTrue(tempfs.readAttributes(file).isRegularFile());
+    assertEquals(0, tempfs.size(file));
+    assertEquals(1, count(dir));
+    try {
+      tempfs.delete(dir);
+      throw new AssertionError("DirectoryNotEmptyException expected");
+    } catch (DirectoryNotEmptyException e) {
+      // Expected
+    }
+    tempfs.delete(file);
+    assertEquals(0, count(dir));
+    tempfs.delete(dir);
+    assertEquals(0, count(tempfs.parsePath("/")));
+    try {
+      tempfs.readAttributes(file);
+      throw new AssertionError("NoSuchFileException expected");
+    } catch (NoSuchFileException e) {
+      // Expected
+    }
+  }
+
+  @Test(expected = NotDirectoryException.class)
+  public void testCreateFileInFile() throws IOException {
+    System.out.println("createFile");
+    Path file = tempfs.createFile(tempfs.parsePath("/file"));
+    tempfs.createFile(new Path(file, "child"));
+  }
+
+  /**
+   * Test of lock method, of class TempFileSystem.
+   */
+  @Test
+  public void testLock() throws Exception {
+    System.out.println("lock");
+    Path file = tempfs.createFile(tempfs.parsePath("/file"));
+    AtomicInteger held = new AtomicInteger();
+    AtomicInteger maxHeld = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    IOException[] failure = new IOException[1];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          for (int j = 0; j < 100; j++) {
+            try (FileLock lock = tempfs.lock(file)) {
+              assertTrue(lock.isValid());
+              maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+              held.decrementAndGet();
+            }
+          }
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    assertEquals(1, maxHeld.get());
+    FileLock lock = tempfs.lock(file);
+    lock.close();
+    assertFalse(lock.isValid());
+    // Closing again does not release another holder
+    try (FileLock lock2 = tempfs.lock(file)) {
+      lock.close();
+      assertTrue(lock2.isValid());
+    }
+  }
+
+  /**
+   * Concurrent creation and deletion in separate and shared directories.
+   */
+  @Test
+  public void testConcurrent() throws Exception {
+    System.out.println("concurrent");
+    final Path shared = tempfs.createDirectory(tempfs.parsePath("/shared"));
+    Thread[] threads = new Thread[8];
+    Exception[] failure = new Exception[1];
+    for (int i = 0; i < threads.length; i++) {
+      final int t = i;
+      threads[i] = new Thread(() -> {
+        try {
+          Path own = tempfs.createDirectories(tempfs.parsePath("/own/" + t));
+          for (int j = 0; j < 200; j++) {
+            Path file = tempfs.createFile(new Path(own, "file" + j));
+            tempfs.createFile(new Path(shared, t + "-" + j));
+            tempfs.delete(file);
+          }
+          tempfs.delete(own);
+        } catch (Exception e) {
+          synchronized (failure) {
+            failure[0] = e;
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    assertEquals(0, count(tempfs.parsePath("/own")));
+    assertEquals(8 * 200, count(shared));
+  }
+
+  /**
+   * Concurrent deletion and recreation of a directory and its child, which must never leave
+   * a directory listing a child that does not exist.
+   */
+  @Test
+  public void testConcurrentRecreate() throws Exception {
+    System.out.println("concurrentRecreate");
+    final Path dir = tempfs.parsePath("/dir");
+    final Path file = new Path(dir, "file");
+    Thread[] threads = new Thread[8];
+    Exception[] failure = new Exception[1];
+    for (int i = 0; i < threads.length; i++) {
+      final boolean batch = (i % 2) == 1;
+      threads[i] = new Thread(() -> {
+        try {
+          for (int j = 0; j < 10000; j++) {
+            try {
+              tempfs.createDirectory(dir);
+            } catch (FileAlreadyExistsException e) {
+              // Created by another thread
+            }
+            try {
+              tempfs.createFile(file);
+            } catch (FileAlreadyExistsException | NoSuchFileException e) {
+              // Created by another thread, or the directory was deleted
+            }
+            if (batch) {
+              tempfs.deleteAll(Arrays.asList(file));
+            } else {
+              try {
+                tempfs.delete(file);
+              } catch (NoSuchFileException e) {
+                // Deleted by another thread
+              }
+            }
+            try {
+              tempfs.delete(dir);
+            } catch (NoSuchFileException | DirectoryNotEmptyException e) {
+              // Deleted by another thread, or the file was recreated
+            }
+          }
+        } catch (Exception e) {
+          synchronized (failure) {
+            failure[0] = e;
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    try {
+      tempfs.readAttributes(dir);
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    // Every listed child exists, and the directory can be emptied and deleted
+    try (PathIterator iter = tempfs.list(dir)) {
+      while (iter.hasNext()) {
+        tempfs.delete(iter.next());
+      }
+    }
+    tempfs.delete(dir);
+  }
+
+  /**
+   * Test of list and listEntries methods on a large directory, of class TempFileSystem.
+   */
+  @Test
+  public void testLargeDirectory() throws IOException {
+    System.out.println("list");
+    Path dir = tempfs.createDirectory(tempfs.parsePath("/dir"));
+    final int size = 100000;
+    for (int i = 0; i < size; i++) {
+      tempfs.createFile(new Path(dir, "file" + i));
+    }
+    assertEquals(size, count(dir));
+    for (int i = 0; i < size; i += 2) {
+      tempfs.delete(new Path(dir, "file" + i));
+    }
+    int entries = 0;
+    try (DirectoryEntryIterator iter = tempfs.listEntries(dir)) {
+      while (iter.hasNext()) {
+        DirectoryEntry entry = iter.next();
+        assertTrue(entry.getAttributes().isRegularFile());
+        // Removes during iteration
+        tempfs.delete(entry.getPath());
+        entries++;
+      }
+    }
+    assertEquals(size / 2, entries);
+    assertEquals(0, count(dir));
+  }
+
+  /**
+   * Test of newByteChannel method, of class TempFileSystem.
+   */
+  @Test
+  public void testNewByteChannel() throws IOException {
+    System.out.println("newByteChannel");
+    TempFileSystem small = new TempFileSystem(16, 64);
+    Path file = small.parsePath("/file");
+    byte[] data = new byte[40];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    try (SeekableByteChannel channel = small.newByteChannel(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      assertEquals(data.length, channel.write(ByteBuffer.wrap(data)));
+      assertEquals(data.length, channel.position());
+    }
+    assertEquals(data.length, small.size(file));
+    assertEquals(48, small.getMemoryUsed());
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    try (SeekableByteChannel channel = small.newByteChannel(file)) {
+      assertEquals(data.length, channel.read(buffer));
+      assertEquals(-1, channel.read(buffer));
+    }
+    assertArrayEquals(data, Arrays.copyOf(buffer.array(), data.length));
+    // Truncate returns whole chunks
+    try (SeekableByteChannel channel = small.newByteChannel(file, StandardOpenOption.WRITE)) {
+      channel.truncate(20);
+    }
+    assertEquals(20, small.size(file));
+    assertEquals(32, small.getMemoryUsed());
+    // Deleted file remains readable while open
+    SeekableByteChannel channel = small.newByteChannel(file);
+    small.delete(file);
+    assertEquals(32, small.getMemoryUsed());
+    buffer.clear();
+    assertEquals(20, channel.read(buffer));
+    channel.close();
+    assertEquals(0, small.getMemoryUsed());
+  }
+
+  /**
+   * Test of sparse files and the memory limit, of class TempFileSystem.
+   */
+  @Test
+  public void testSparse() throws IOException {
+    System.out.println("sparse");
+    TempFileSystem small = new TempFileSystem(16, 32);
+    Path file = small.parsePath("/file");
+    try (SeekableByteChannel channel = small.newByteChannel(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      channel.position(1000).write(ByteBuffer.wrap(new byte[] {1}));
+      assertEquals(1001, channel.size());
+      assertEquals(16, small.getMemoryUsed());
+      channel.position(2000).write(ByteBuffer.wrap(new byte[] {2}));
+      try {
+        channel.position(3000).write(ByteBuffer.wrap(new byte[] {3}));
+        throw new AssertionError("FileSystemException expected");
+      } catch (FileSystemException e) {
+        // Expected
+      }
+    }
+    assertEquals(2001, small.size(file));
+    ByteBuffer buffer = ByteBuffer.allocate(2001);
+    try (SeekableByteChannel channel = small.newByteChannel(file, StandardOpenOption.READ)) {
+      assertEquals(2001, channel.read(buffer));
+    }
+    byte[] expected = new byte[2001];
+    expected[1000] = 1;
+    expected[2000] = 2;
+    assertArrayEquals(expected, buffer.array());
+    // Truncating and extending reads zeros
+    try (SeekableByteChannel channel = small.newByteChannel(file, StandardOpenOption.APPEND)) {
+      channel.truncate(1000);
+      channel.write(ByteBuffer.wrap(new byte[] {4}));
+    }
+    buffer = ByteBuffer.allocate(2);
+    try (SeekableByteChannel channel = small.newByteChannel(file)) {
+      channel.position(999).read(buffer);
+    }
+    assertArrayEquals(new byte[] {0, 4}, buffer.array());
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testNewByteChannelNoSuchFile() throws IOException {
+    System.out.println("newByteChannel");
+    tempfs.newByteChannel(tempfs.parsePath("/missing"), StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Test of shared, range and timed locks, of class TempFileSystem.
+   */
+  @Test
+  public void testLockRange() throws IOException {
+    System.out.println("lockRange");
+    Path file = tempfs.createFile(tempfs.parsePath("/file"));
+    try (
+        FileLock shared1 = tempfs.lock(file, 0, Long.MAX_VALUE, true);
+        FileLock shared2 = tempfs.tryLock(file, 0, 100, true)
+        ) {
+      assertTrue(shared1.isShared());
+      assertNotNull(shared2);
+      assertNull(tempfs.tryLock(file));
+      assertNull(tempfs.tryLock(file, 50, 10, false, 10, TimeUnit.MILLISECONDS));
+    }
+    try (FileLock range1 = tempfs.lock(file, 0, 100, false)) {
+      assertEquals(100, range1.size());
+      try (FileLock range2 = tempfs.tryLock(file, 100, 100, false)) {
+        assertNotNull(range2);
+        assertNull(tempfs.tryLock(file, 99, 2, true));
+      }
+    }
+  }
+
+  /**
+   * Test of lockAsync method, of class TempFileSystem.
+   */
+  @Test
+  public void testLockAsync() throws Exception {
+    System.out.println("lockAsync");
+    Path file = tempfs.createFile(tempfs.parsePath("/file"));
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      CompletableFuture<FileLock> future;
+      try (FileLock lock = tempfs.lock(file)) {
+        assertTrue(lock.isValid());
+        future = tempfs.lockAsync(file, scheduler);
+        Thread.sleep(10);
+        assertFalse(future.isDone());
+      }
+      try (FileLock lock = future.get(10, TimeUnit.SECONDS)) {
+        assertTrue(lock.isValid());
+        // Cancelled before acquired
+        tempfs.lockAsync(file, scheduler).cancel(false);
+      }
+      Thread.sleep(10);
+      try (FileLock lock = tempfs.tryLock(file)) {
+        assertNotNull(lock);
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+}